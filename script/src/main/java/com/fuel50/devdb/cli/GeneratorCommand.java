@@ -4,13 +4,18 @@ import com.fuel50.devdb.config.DatabaseSpecLoader;
 import com.fuel50.devdb.model.DatabaseSpec;
 import com.fuel50.devdb.model.TableSpec;
 import com.fuel50.devdb.model.ColumnSpec;
+import com.fuel50.devdb.service.DumpCompression;
+import com.fuel50.devdb.service.DumpFormat;
+import com.fuel50.devdb.service.FetchMode;
 import com.fuel50.devdb.service.LightweightGenerator;
 import picocli.CommandLine.*;
 import java.io.File;
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.SQLException;
 import java.util.List;
 import java.util.Map;
+import java.util.Properties;
 import java.util.stream.Collectors;
 
 @Command(name = "generate", description = "Generate lightweight database from production data")
@@ -37,9 +42,32 @@ public class GeneratorCommand implements Runnable {
             "--dry-run" }, description = "Show what would be generated without actually generating it", defaultValue = "false")
     private boolean dryRun;
 
+    @Option(names = {
+            "--parallelism" }, description = "Number of tables selected concurrently, each on its own connection", defaultValue = "1")
+    private int parallelism;
+
+    @Option(names = {
+            "--incremental" }, description = "Only extract rows changed since the last run into an upsert delta dump", defaultValue = "false")
+    private boolean incremental;
+
+    @Option(names = {
+            "--compression" }, description = "Compress the dump while writing it: none, gzip or zstd", defaultValue = "none")
+    private String compression;
+
+    @Option(names = {
+            "--format" }, description = "Dump format: sql (INSERT statements), tsv (LOAD DATA files) or binary (typed snapshots)", defaultValue = "sql")
+    private String format;
+
+    @Option(names = {
+            "--sharded" }, description = "Write one SQL file per table, concurrently, with checksums in the manifest", defaultValue = "false")
+    private boolean sharded;
+
     @Override
     public void run() {
         try {
+            DumpFormat dumpFormat = DumpFormat.fromConfig(format);
+            LightweightGenerator.validateOptions(incremental, dumpFormat);
+
             // Load configuration
             DatabaseSpec spec = DatabaseSpecLoader.load(new File(configFile));
             System.out.println("✅ Loaded configuration from: " + configFile);
@@ -53,11 +81,16 @@ public class GeneratorCommand implements Runnable {
             System.out.println("================================================");
 
             // Connect to source database
-            Connection sourceConn = DriverManager.getConnection(sourceDb, username, password);
+            Connection sourceConn = openSourceConnection(spec);
             System.out.println("✅ Connected to source database");
 
             // Generate lightweight database
-            LightweightGenerator generator = new LightweightGenerator(spec, sourceConn);
+            LightweightGenerator generator = new LightweightGenerator(spec, sourceConn,
+                    () -> openSourceConnection(spec), parallelism);
+            generator.setIncremental(incremental);
+            generator.setCompression(DumpCompression.fromConfig(compression));
+            generator.setFormat(dumpFormat);
+            generator.setSharded(sharded);
             generator.generate(outputDir);
 
             // Close connection
@@ -74,6 +107,20 @@ public class GeneratorCommand implements Runnable {
         }
     }
 
+    private Connection openSourceConnection(DatabaseSpec spec) throws SQLException {
+        Properties props = new Properties();
+        props.setProperty("user", username);
+        props.setProperty("password", password);
+
+        // Server-side cursors are only used by Connector/J when explicitly enabled
+        if (spec.getDefaults() != null && spec.getDefaults().getExtraction() != null
+                && FetchMode.fromConfig(spec.getDefaults().getExtraction().getFetchMode()) == FetchMode.CURSOR) {
+            props.setProperty("useCursorFetch", "true");
+        }
+
+        return DriverManager.getConnection(sourceDb, props);
+    }
+
     private void analyzeDatabase(DatabaseSpec spec) {
         System.out.println("🔍 DRY RUN - Process Started");
         System.out.println("================================================");
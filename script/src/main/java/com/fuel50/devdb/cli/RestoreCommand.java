@@ -1,15 +1,27 @@
 package com.fuel50.devdb.cli;
 
 import com.fuel50.devdb.service.DatabaseRestorer;
+import com.fuel50.devdb.service.DumpCompression;
 import picocli.CommandLine.Command;
 import picocli.CommandLine.Option;
 import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.LinkedHashSet;
+import java.util.Properties;
+import java.util.Set;
 
 @Command(name = "restore", description = "Restore lightweight database to local MySQL instance")
 public class RestoreCommand implements Runnable {
+    private static final String DEFAULT_DUMP = "/app/output/lightweight-dump.sql";
+    private static final String DEFAULT_DELTA = "/app/output/lightweight-delta.sql";
+    private static final String DEFAULT_LOAD = "/app/output/lightweight-load.sql";
+    private static final String DEFAULT_SNAPSHOT = "/app/output/lightweight-snapshot.sql";
+    private static final String DEFAULT_MANIFEST = "/app/output/manifest.json";
 
     @Option(names = { "-t",
             "--target" }, description = "Target database connection string", defaultValue = "jdbc:mysql://local-mysql:3306/fuel50_db")
@@ -22,16 +34,58 @@ public class RestoreCommand implements Runnable {
     private String password;
 
     @Option(names = { "-d",
-            "--dump" }, description = "Path to lightweight dump file", defaultValue = "/app/output/lightweight-dump.sql")
+            "--dump" }, description = "Path to lightweight dump file", defaultValue = DEFAULT_DUMP)
     private String dumpFile;
 
+    @Option(names = {
+            "--delta" }, description = "Apply an incremental delta dump on top of the existing local database", defaultValue = "false")
+    private boolean delta;
+
+    @Option(names = {
+            "--bulk-load" }, description = "Restore a TSV dump through LOAD DATA LOCAL INFILE", defaultValue = "false")
+    private boolean bulkLoad;
+
+    @Option(names = {
+            "--snapshot" }, description = "Restore a binary snapshot through batched prepared inserts", defaultValue = "false")
+    private boolean snapshot;
+
+    @Option(names = {
+            "--sharded" }, description = "Verify and restore the per-table dump files listed in the manifest", defaultValue = "false")
+    private boolean sharded;
+
+    @Option(names = {
+            "--manifest" }, description = "Manifest listing the dump files of a sharded dump", defaultValue = DEFAULT_MANIFEST)
+    private String manifestFile;
+
+    @Option(names = {
+            "--parallelism" }, description = "Number of tables restored concurrently from a sharded dump, each on its own connection", defaultValue = "1")
+    private int parallelism;
+
+    @Option(names = {
+            "--tables" }, split = ",", description = "Restore only these tables from a sharded dump, e.g. to retry failed ones")
+    private Set<String> tables = new LinkedHashSet<>();
+
     @Override
     public void run() {
         try {
             System.out.println("🔄 DevDB Restore - Process Started");
             System.out.println("================================================");
 
-            File dump = new File(dumpFile);
+            if (sharded) {
+                restoreSharded();
+                return;
+            }
+
+            // Without an explicit --dump, --delta reads the delta written next to the full dump
+            if (delta && DEFAULT_DUMP.equals(dumpFile)) {
+                dumpFile = DEFAULT_DELTA;
+            } else if (bulkLoad && DEFAULT_DUMP.equals(dumpFile)) {
+                dumpFile = DEFAULT_LOAD;
+            } else if (snapshot && DEFAULT_DUMP.equals(dumpFile)) {
+                dumpFile = DEFAULT_SNAPSHOT;
+            }
+
+            File dump = locateDump(new File(dumpFile));
             if (!dump.exists()) {
                 System.err.println("❌ Dump file not found: " + dumpFile);
                 System.err.println("💡 Tip: Run 'generate' first to create a lightweight database");
@@ -39,14 +93,30 @@ public class RestoreCommand implements Runnable {
             }
 
             System.out.println("📊 Dump file size: " + formatFileSize(dump.length()));
+            DumpCompression compression = DumpCompression.fromFileName(dump.getName());
+            if (compression != DumpCompression.NONE) {
+                System.out.println("🗜️  Compressed dump (" + compression.name().toLowerCase() + ")");
+            }
+            if (delta) {
+                System.out.println("🔁 Applying delta on top of the existing database");
+            }
 
             // Connect to target database
-            Connection targetConn = DriverManager.getConnection(targetDb, username, password);
+            Properties props = connectionProperties();
+            // The restorer supplies each data file as a stream; the server also needs local_infile=ON
+            if (bulkLoad) {
+                props.setProperty("allowLoadLocalInfile", "true");
+            }
+            // Lets Connector/J send each batch of snapshot rows as one multi-row INSERT
+            if (snapshot) {
+                props.setProperty("rewriteBatchedStatements", "true");
+            }
+            Connection targetConn = DriverManager.getConnection(targetDb, props);
             System.out.println("✅ Connected to target database");
 
             // Restore database
             DatabaseRestorer restorer = new DatabaseRestorer(targetConn);
-            restorer.restore(dumpFile);
+            restorer.restore(dump.getPath());
 
             // Close connection
             targetConn.close();
@@ -66,6 +136,60 @@ public class RestoreCommand implements Runnable {
         }
     }
 
+    private void restoreSharded() throws Exception {
+        Path manifest = Paths.get(manifestFile);
+        if (!Files.exists(manifest)) {
+            System.err.println("❌ Manifest not found: " + manifestFile);
+            System.err.println("💡 Tip: Run 'generate --sharded' first to create a sharded dump");
+            System.exit(1);
+        }
+        if (delta) {
+            System.out.println("🔁 Applying delta on top of the existing database");
+        }
+
+        // Every table is restored on a connection of its own
+        Properties props = connectionProperties();
+        Set<String> failed;
+        try (Connection targetConn = DriverManager.getConnection(targetDb, props)) {
+            System.out.println("✅ Connected to target database");
+            DatabaseRestorer restorer = new DatabaseRestorer(targetConn);
+            failed = restorer.restoreShards(manifest, () -> DriverManager.getConnection(targetDb, props),
+                    parallelism, tables);
+        }
+        if (!failed.isEmpty()) {
+            System.err.println("❌ Failed to restore tables: " + String.join(", ", failed));
+            System.err.println("💡 Tip: Empty them and run 'restore --sharded --tables " + String.join(",", failed)
+                    + "' to retry just those");
+            System.exit(1);
+        }
+
+        System.out.println("🎉 Database restored successfully. You can now connect to: " + targetDb);
+
+        System.out.println("================================================");
+        System.out.println("✅ DevDB Restore - Process Completed");
+    }
+
+    private Properties connectionProperties() {
+        Properties props = new Properties();
+        props.setProperty("user", username);
+        props.setProperty("password", password);
+        return props;
+    }
+
+    // The generator appends .gz or .zst when it compresses, so fall back to those next to a missing plain dump
+    private File locateDump(File dump) {
+        if (dump.exists()) {
+            return dump;
+        }
+        for (DumpCompression compression : DumpCompression.values()) {
+            File compressed = new File(dump.getPath() + compression.getExtension());
+            if (compressed.exists()) {
+                return compressed;
+            }
+        }
+        return dump;
+    }
+
     private String formatFileSize(long bytes) {
         if (bytes < 1024)
             return bytes + " B";
@@ -65,6 +65,14 @@ public class DatabaseSpecLoader {
             defaults.setMasking(parseMaskingDefaults((Map<String, Object>) data.get("masking")));
         }
 
+        if (data.containsKey("extraction")) {
+            defaults.setExtraction(parseExtractionDefaults((Map<String, Object>) data.get("extraction")));
+        }
+
+        if (data.containsKey("output")) {
+            defaults.setOutput(parseOutputDefaults((Map<String, Object>) data.get("output")));
+        }
+
         return defaults;
     }
 
@@ -80,6 +88,9 @@ public class DatabaseSpecLoader {
         if (data.containsKey("time_window_days")) {
             subset.setTimeWindowDays((Integer) data.get("time_window_days"));
         }
+        if (data.containsKey("closure")) {
+            subset.setClosure((String) data.get("closure"));
+        }
 
         return subset;
     }
@@ -96,10 +107,70 @@ public class DatabaseSpecLoader {
         if (data.containsKey("preserve_length")) {
             masking.setPreserveLength((Boolean) data.get("preserve_length"));
         }
+        if (data.containsKey("hash_algorithm")) {
+            masking.setHashAlgorithm((String) data.get("hash_algorithm"));
+        }
+        if (data.containsKey("cache_capacity")) {
+            masking.setCacheCapacity((Integer) data.get("cache_capacity"));
+        }
+        if (data.containsKey("batch_size")) {
+            masking.setBatchSize((Integer) data.get("batch_size"));
+        }
+        if (data.containsKey("pool_size")) {
+            masking.setPoolSize((Integer) data.get("pool_size"));
+        }
+        if (data.containsKey("unique_spill_threshold")) {
+            masking.setUniqueSpillThreshold((Integer) data.get("unique_spill_threshold"));
+        }
+        if (data.containsKey("dictionary")) {
+            masking.setDictionary((Boolean) data.get("dictionary"));
+        }
+        if (data.containsKey("dictionary_capacity")) {
+            masking.setDictionaryCapacity((Integer) data.get("dictionary_capacity"));
+        }
 
         return masking;
     }
 
+    private static DatabaseSpec.ExtractionDefaults parseExtractionDefaults(Map<String, Object> data) {
+        DatabaseSpec.ExtractionDefaults extraction = new DatabaseSpec.ExtractionDefaults();
+
+        if (data.containsKey("chunk_size")) {
+            extraction.setChunkSize((Integer) data.get("chunk_size"));
+        }
+        if (data.containsKey("temp_table_threshold")) {
+            extraction.setTempTableThreshold((Integer) data.get("temp_table_threshold"));
+        }
+        if (data.containsKey("fetch_mode")) {
+            extraction.setFetchMode((String) data.get("fetch_mode"));
+        }
+        if (data.containsKey("fetch_size")) {
+            extraction.setFetchSize((Integer) data.get("fetch_size"));
+        }
+        if (data.containsKey("page_size")) {
+            extraction.setPageSize((Integer) data.get("page_size"));
+        }
+
+        return extraction;
+    }
+
+    private static DatabaseSpec.OutputDefaults parseOutputDefaults(Map<String, Object> data) {
+        DatabaseSpec.OutputDefaults output = new DatabaseSpec.OutputDefaults();
+
+        if (data.containsKey("max_statement_bytes")) {
+            output.setMaxStatementBytes((Integer) data.get("max_statement_bytes"));
+        }
+        if (data.containsKey("max_statement_rows")) {
+            output.setMaxStatementRows((Integer) data.get("max_statement_rows"));
+        }
+        if (data.containsKey("max_file_bytes")) {
+            // Sizes past 2GB come back from YAML as longs
+            output.setMaxFileBytes(((Number) data.get("max_file_bytes")).longValue());
+        }
+
+        return output;
+    }
+
     @SuppressWarnings("unchecked")
     private static TableSpec parseTableSpec(String tableName, Map<String, Object> data) {
         TableSpec table = new TableSpec();
@@ -117,6 +188,10 @@ public class DatabaseSpecLoader {
             table.setProcessingOrder((Integer) data.get("processing_order"));
         }
 
+        if (data.containsKey("partitions")) {
+            table.setPartitions((Integer) data.get("partitions"));
+        }
+
         if (data.containsKey("post_load")) {
             table.setPostLoad(parsePostLoadSpec((Map<String, Object>) data.get("post_load")));
         }
@@ -156,6 +231,12 @@ public class DatabaseSpecLoader {
         if (data.containsKey("max_rows")) {
             subset.setMaxRows((Integer) data.get("max_rows"));
         }
+        if (data.containsKey("temp_table_threshold")) {
+            subset.setTempTableThreshold((Integer) data.get("temp_table_threshold"));
+        }
+        if (data.containsKey("time_window_mode")) {
+            subset.setTimeWindowMode((String) data.get("time_window_mode"));
+        }
 
         return subset;
     }
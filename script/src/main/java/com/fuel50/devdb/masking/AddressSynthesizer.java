@@ -0,0 +1,16 @@
+package com.fuel50.devdb.masking;
+
+import com.fuel50.devdb.model.ColumnSpec;
+import com.fuel50.devdb.model.DatabaseSpec;
+
+public class AddressSynthesizer implements Synthesizer {
+    @Override
+    public String getType() {
+        return "address";
+    }
+
+    @Override
+    public ColumnTransform compile(ColumnSpec.SynthSpec synth, DatabaseSpec.MaskingDefaults defaults) {
+        return digest -> digest.hex(0, 8) + " Fake St, Test City, TC 12345";
+    }
+}
@@ -0,0 +1,27 @@
+package com.fuel50.devdb.masking;
+
+/**
+ * A pre-resolved transformation for one column. The replacement is derived from the row's
+ * deterministic key digest, so it can be cached per key value, and is then combined with
+ * the source value, which is never null.
+ */
+public interface ColumnTransform {
+    /** Derives the replacement from the key digest, which is only valid during this call. */
+    Object derive(KeyDigest digest);
+
+    default Object apply(Object value, Object derived) {
+        return derived;
+    }
+
+    /**
+     * Applies the transform to {@code values[from..to)} in place, given the values derived
+     * for the same rows. Null source values are left as they are.
+     */
+    default void applyBatch(Object[] values, Object[] derived, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (values[i] != null) {
+                values[i] = apply(values[i], derived[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.fuel50.devdb.masking;
+
+import com.fuel50.devdb.model.ColumnSpec;
+import com.fuel50.devdb.model.DatabaseSpec;
+
+public class CreditCardSynthesizer implements Synthesizer {
+    @Override
+    public String getType() {
+        return "credit_card";
+    }
+
+    @Override
+    public ColumnTransform compile(ColumnSpec.SynthSpec synth, DatabaseSpec.MaskingDefaults defaults) {
+        // Only last4-only exists today, so every format renders the same way
+        return digest -> "XXXX-XXXX-XXXX-" + digest.hex(0, 4);
+    }
+}
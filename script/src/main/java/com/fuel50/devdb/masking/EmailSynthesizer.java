@@ -0,0 +1,21 @@
+package com.fuel50.devdb.masking;
+
+import com.fuel50.devdb.model.ColumnSpec;
+import com.fuel50.devdb.model.DatabaseSpec;
+
+public class EmailSynthesizer implements Synthesizer {
+    @Override
+    public String getType() {
+        return "email";
+    }
+
+    @Override
+    public ColumnTransform compile(ColumnSpec.SynthSpec synth, DatabaseSpec.MaskingDefaults defaults) {
+        String domain = synth.getDomain();
+        if (domain == null && defaults != null) {
+            domain = defaults.getEmailDomain();
+        }
+        String suffix = "@" + (domain != null ? domain : "dev.local");
+        return digest -> "user" + digest.hex(0, 6) + suffix;
+    }
+}
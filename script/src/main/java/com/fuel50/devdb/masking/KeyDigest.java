@@ -0,0 +1,20 @@
+package com.fuel50.devdb.masking;
+
+/**
+ * Read-only view of the 32-byte digest of a row's deterministic key. The engine reuses the
+ * underlying buffer for the next row, so a view is only valid during the
+ * {@link ColumnTransform#derive} call that receives it and must not be kept.
+ */
+public interface KeyDigest {
+    /** Number of bytes in the digest. */
+    int length();
+
+    /** Byte {@code index} of the digest, from 0 to 255. */
+    int byteAt(int index);
+
+    /** Returns lowercase hex characters {@code [from, to)} of the digest. */
+    String hex(int from, int to);
+
+    /** Same value as {@code hex(0, 2 * length()).hashCode()}, without building the string. */
+    int hexHashCode();
+}
@@ -0,0 +1,36 @@
+package com.fuel50.devdb.masking;
+
+import com.fuel50.devdb.model.ColumnSpec;
+import com.fuel50.devdb.model.DatabaseSpec;
+
+/** Adds up to {@code percent}% of noise to numbers; the noise factor comes from the key. */
+public class NumericNoiseMasker implements Masker {
+    @Override
+    public String getType() {
+        return "numeric_noise";
+    }
+
+    @Override
+    public ColumnTransform compile(ColumnSpec.MaskSpec mask, DatabaseSpec.MaskingDefaults defaults) {
+        if (mask.getPercent() == null) {
+            throw new IllegalArgumentException("numeric_noise requires percent");
+        }
+        double fraction = mask.getPercent() / 100.0;
+
+        return new ColumnTransform() {
+            @Override
+            public Object derive(KeyDigest digest) {
+                return (digest.hexHashCode() % 100) / 100.0 * fraction;
+            }
+
+            @Override
+            public Object apply(Object value, Object derived) {
+                if (!(value instanceof Number)) {
+                    return value;
+                }
+                double original = ((Number) value).doubleValue();
+                return original + (Double) derived * original;
+            }
+        };
+    }
+}
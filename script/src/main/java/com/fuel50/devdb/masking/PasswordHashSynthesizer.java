@@ -0,0 +1,16 @@
+package com.fuel50.devdb.masking;
+
+import com.fuel50.devdb.model.ColumnSpec;
+import com.fuel50.devdb.model.DatabaseSpec;
+
+public class PasswordHashSynthesizer implements Synthesizer {
+    @Override
+    public String getType() {
+        return "password_hash";
+    }
+
+    @Override
+    public ColumnTransform compile(ColumnSpec.SynthSpec synth, DatabaseSpec.MaskingDefaults defaults) {
+        return digest -> "$2b$10$" + digest.hex(0, 22) + "..." + digest.hex(22, 31);
+    }
+}
@@ -0,0 +1,30 @@
+package com.fuel50.devdb.masking;
+
+import com.fuel50.devdb.model.ColumnSpec;
+import com.fuel50.devdb.model.DatabaseSpec;
+
+/**
+ * Service provider for a {@code synth.type}. Implementations are discovered with
+ * {@link java.util.ServiceLoader} and listed in
+ * {@code META-INF/services/com.fuel50.devdb.masking.Synthesizer}.
+ */
+public interface Synthesizer {
+    /** The {@code synth.type} this provider handles. */
+    String getType();
+
+    /**
+     * Resolves the column's synth settings into a transform, throwing
+     * {@link IllegalArgumentException} when they are invalid.
+     */
+    ColumnTransform compile(ColumnSpec.SynthSpec synth, DatabaseSpec.MaskingDefaults defaults);
+
+    /** Whether one compiled transform may be called from several threads at once. */
+    default boolean isThreadSafe() {
+        return true;
+    }
+
+    /** Whether derived values depend only on the key digest, so they may be cached and persisted. */
+    default boolean isCacheable() {
+        return true;
+    }
+}
@@ -0,0 +1,55 @@
+package com.fuel50.devdb.masking;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.TreeSet;
+
+/** Maskers and synthesizers found on the classpath through {@link ServiceLoader}, by type. */
+public class TransformRegistry {
+    private final Map<String, Masker> maskers = new HashMap<>();
+    private final Map<String, Synthesizer> synthesizers = new HashMap<>();
+
+    public static TransformRegistry load() {
+        TransformRegistry registry = new TransformRegistry();
+        for (Masker masker : ServiceLoader.load(Masker.class)) {
+            Masker existing = registry.maskers.putIfAbsent(masker.getType(), masker);
+            if (existing != null) {
+                throw new IllegalStateException("Mask type '" + masker.getType() + "' is provided by both "
+                        + existing.getClass().getName() + " and " + masker.getClass().getName());
+            }
+        }
+        for (Synthesizer synthesizer : ServiceLoader.load(Synthesizer.class)) {
+            Synthesizer existing = registry.synthesizers.putIfAbsent(synthesizer.getType(), synthesizer);
+            if (existing != null) {
+                throw new IllegalStateException("Synth type '" + synthesizer.getType() + "' is provided by both "
+                        + existing.getClass().getName() + " and " + synthesizer.getClass().getName());
+            }
+        }
+        return registry;
+    }
+
+    public Masker getMasker(String type) {
+        return maskers.get(type);
+    }
+
+    public Synthesizer getSynthesizer(String type) {
+        return synthesizers.get(type);
+    }
+
+    public Map<String, Masker> getMaskers() {
+        return maskers;
+    }
+
+    public Map<String, Synthesizer> getSynthesizers() {
+        return synthesizers;
+    }
+
+    public String describeMaskTypes() {
+        return String.join(" | ", new TreeSet<>(maskers.keySet()));
+    }
+
+    public String describeSynthTypes() {
+        return String.join(" | ", new TreeSet<>(synthesizers.keySet()));
+    }
+}
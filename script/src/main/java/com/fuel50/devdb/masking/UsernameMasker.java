@@ -0,0 +1,16 @@
+package com.fuel50.devdb.masking;
+
+import com.fuel50.devdb.model.ColumnSpec;
+import com.fuel50.devdb.model.DatabaseSpec;
+
+public class UsernameMasker implements Masker {
+    @Override
+    public String getType() {
+        return "username";
+    }
+
+    @Override
+    public ColumnTransform compile(ColumnSpec.MaskSpec mask, DatabaseSpec.MaskingDefaults defaults) {
+        return digest -> "user_" + digest.hex(0, 8);
+    }
+}
@@ -36,6 +36,8 @@ public class DatabaseSpec {
     public static class Defaults {
         private SubsetDefaults subset;
         private MaskingDefaults masking;
+        private ExtractionDefaults extraction;
+        private OutputDefaults output;
 
         public SubsetDefaults getSubset() {
             return subset;
@@ -52,12 +54,29 @@ public class DatabaseSpec {
         public void setMasking(MaskingDefaults masking) {
             this.masking = masking;
         }
+
+        public ExtractionDefaults getExtraction() {
+            return extraction;
+        }
+
+        public void setExtraction(ExtractionDefaults extraction) {
+            this.extraction = extraction;
+        }
+
+        public OutputDefaults getOutput() {
+            return output;
+        }
+
+        public void setOutput(OutputDefaults output) {
+            this.output = output;
+        }
     }
 
     public static class SubsetDefaults {
         private String strategy;
         private Integer maxRows;
         private Integer timeWindowDays;
+        private String closure;
 
         public String getStrategy() {
             return strategy;
@@ -82,12 +101,27 @@ public class DatabaseSpec {
         public void setTimeWindowDays(Integer timeWindowDays) {
             this.timeWindowDays = timeWindowDays;
         }
+
+        public String getClosure() {
+            return closure;
+        }
+
+        public void setClosure(String closure) {
+            this.closure = closure;
+        }
     }
 
     public static class MaskingDefaults {
         private String deterministicSalt;
         private String emailDomain;
         private boolean preserveLength;
+        private String hashAlgorithm;
+        private Integer cacheCapacity;
+        private Integer batchSize;
+        private Integer poolSize;
+        private Integer uniqueSpillThreshold;
+        private boolean dictionary;
+        private Integer dictionaryCapacity;
 
         public String getDeterministicSalt() {
             return deterministicSalt;
@@ -112,5 +146,139 @@ public class DatabaseSpec {
         public void setPreserveLength(boolean preserveLength) {
             this.preserveLength = preserveLength;
         }
+
+        public String getHashAlgorithm() {
+            return hashAlgorithm;
+        }
+
+        public void setHashAlgorithm(String hashAlgorithm) {
+            this.hashAlgorithm = hashAlgorithm;
+        }
+
+        public Integer getCacheCapacity() {
+            return cacheCapacity;
+        }
+
+        public void setCacheCapacity(Integer cacheCapacity) {
+            this.cacheCapacity = cacheCapacity;
+        }
+
+        public Integer getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(Integer batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public Integer getPoolSize() {
+            return poolSize;
+        }
+
+        public void setPoolSize(Integer poolSize) {
+            this.poolSize = poolSize;
+        }
+
+        public Integer getUniqueSpillThreshold() {
+            return uniqueSpillThreshold;
+        }
+
+        public void setUniqueSpillThreshold(Integer uniqueSpillThreshold) {
+            this.uniqueSpillThreshold = uniqueSpillThreshold;
+        }
+
+        public boolean isDictionary() {
+            return dictionary;
+        }
+
+        public void setDictionary(boolean dictionary) {
+            this.dictionary = dictionary;
+        }
+
+        public Integer getDictionaryCapacity() {
+            return dictionaryCapacity;
+        }
+
+        public void setDictionaryCapacity(Integer dictionaryCapacity) {
+            this.dictionaryCapacity = dictionaryCapacity;
+        }
+    }
+
+    public static class ExtractionDefaults {
+        private Integer chunkSize;
+        private Integer tempTableThreshold;
+        private String fetchMode;
+        private Integer fetchSize;
+        private Integer pageSize;
+
+        public Integer getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(Integer chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+
+        public Integer getTempTableThreshold() {
+            return tempTableThreshold;
+        }
+
+        public void setTempTableThreshold(Integer tempTableThreshold) {
+            this.tempTableThreshold = tempTableThreshold;
+        }
+
+        public String getFetchMode() {
+            return fetchMode;
+        }
+
+        public void setFetchMode(String fetchMode) {
+            this.fetchMode = fetchMode;
+        }
+
+        public Integer getFetchSize() {
+            return fetchSize;
+        }
+
+        public void setFetchSize(Integer fetchSize) {
+            this.fetchSize = fetchSize;
+        }
+
+        public Integer getPageSize() {
+            return pageSize;
+        }
+
+        public void setPageSize(Integer pageSize) {
+            this.pageSize = pageSize;
+        }
+    }
+
+    public static class OutputDefaults {
+        private Integer maxStatementBytes;
+        private Integer maxStatementRows;
+        private Long maxFileBytes;
+
+        public Integer getMaxStatementBytes() {
+            return maxStatementBytes;
+        }
+
+        public void setMaxStatementBytes(Integer maxStatementBytes) {
+            this.maxStatementBytes = maxStatementBytes;
+        }
+
+        public Integer getMaxStatementRows() {
+            return maxStatementRows;
+        }
+
+        public void setMaxStatementRows(Integer maxStatementRows) {
+            this.maxStatementRows = maxStatementRows;
+        }
+
+        public Long getMaxFileBytes() {
+            return maxFileBytes;
+        }
+
+        public void setMaxFileBytes(Long maxFileBytes) {
+            this.maxFileBytes = maxFileBytes;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,163 @@
+package com.fuel50.devdb.model;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class SchemaMetadata {
+    private String schema;
+    private String checksum;
+    private Map<String, TableMetadata> tables = new LinkedHashMap<>();
+
+    // Getters and setters
+    public String getSchema() {
+        return schema;
+    }
+
+    public void setSchema(String schema) {
+        this.schema = schema;
+    }
+
+    public String getChecksum() {
+        return checksum;
+    }
+
+    public void setChecksum(String checksum) {
+        this.checksum = checksum;
+    }
+
+    public Map<String, TableMetadata> getTables() {
+        return tables;
+    }
+
+    public void setTables(Map<String, TableMetadata> tables) {
+        this.tables = tables;
+    }
+
+    public static class TableMetadata {
+        private String name;
+        private List<ColumnMetadata> columns = new ArrayList<>();
+        private List<String> primaryKey = new ArrayList<>();
+        private List<ForeignKeyMetadata> foreignKeys = new ArrayList<>();
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public List<ColumnMetadata> getColumns() {
+            return columns;
+        }
+
+        public void setColumns(List<ColumnMetadata> columns) {
+            this.columns = columns;
+        }
+
+        public List<String> getPrimaryKey() {
+            return primaryKey;
+        }
+
+        public void setPrimaryKey(List<String> primaryKey) {
+            this.primaryKey = primaryKey;
+        }
+
+        public List<ForeignKeyMetadata> getForeignKeys() {
+            return foreignKeys;
+        }
+
+        public void setForeignKeys(List<ForeignKeyMetadata> foreignKeys) {
+            this.foreignKeys = foreignKeys;
+        }
+    }
+
+    public static class ColumnMetadata {
+        private String name;
+        private String dataType;
+        private String columnType;
+        private boolean nullable;
+        private Integer numericScale;
+        private Long maxLength;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getDataType() {
+            return dataType;
+        }
+
+        public void setDataType(String dataType) {
+            this.dataType = dataType;
+        }
+
+        public String getColumnType() {
+            return columnType;
+        }
+
+        public void setColumnType(String columnType) {
+            this.columnType = columnType;
+        }
+
+        public boolean isNullable() {
+            return nullable;
+        }
+
+        public void setNullable(boolean nullable) {
+            this.nullable = nullable;
+        }
+
+        public Integer getNumericScale() {
+            return numericScale;
+        }
+
+        public void setNumericScale(Integer numericScale) {
+            this.numericScale = numericScale;
+        }
+
+        public Long getMaxLength() {
+            return maxLength;
+        }
+
+        public void setMaxLength(Long maxLength) {
+            this.maxLength = maxLength;
+        }
+    }
+
+    public static class ForeignKeyMetadata {
+        private String column;
+        private String referencedTable;
+        private String referencedColumn;
+
+        public String getColumn() {
+            return column;
+        }
+
+        public void setColumn(String column) {
+            this.column = column;
+        }
+
+        public String getReferencedTable() {
+            return referencedTable;
+        }
+
+        public void setReferencedTable(String referencedTable) {
+            this.referencedTable = referencedTable;
+        }
+
+        public String getReferencedColumn() {
+            return referencedColumn;
+        }
+
+        public void setReferencedColumn(String referencedColumn) {
+            this.referencedColumn = referencedColumn;
+        }
+    }
+}
@@ -8,7 +8,8 @@ public class TableSpec {
     private String name;
     private SubsetSpec subset;
     private ForeignKeySpec fk;
-    private int processingOrder;
+    private Integer processingOrder;
+    private Integer partitions;
     private PostLoadSpec postLoad;
     private Map<String, ColumnSpec> columns = new HashMap<>();
 
@@ -37,14 +38,22 @@ public class TableSpec {
         this.fk = fk;
     }
 
-    public int getProcessingOrder() {
+    public Integer getProcessingOrder() {
         return processingOrder;
     }
 
-    public void setProcessingOrder(int processingOrder) {
+    public void setProcessingOrder(Integer processingOrder) {
         this.processingOrder = processingOrder;
     }
 
+    public Integer getPartitions() {
+        return partitions;
+    }
+
+    public void setPartitions(Integer partitions) {
+        this.partitions = partitions;
+    }
+
     public PostLoadSpec getPostLoad() {
         return postLoad;
     }
@@ -67,6 +76,8 @@ public class TableSpec {
         private boolean root;
         private String orderBy;
         private Integer maxRows;
+        private Integer tempTableThreshold;
+        private String timeWindowMode;
 
         // Getters and setters
         public String getStrategy() {
@@ -108,6 +119,22 @@ public class TableSpec {
         public void setMaxRows(Integer maxRows) {
             this.maxRows = maxRows;
         }
+
+        public Integer getTempTableThreshold() {
+            return tempTableThreshold;
+        }
+
+        public void setTempTableThreshold(Integer tempTableThreshold) {
+            this.tempTableThreshold = tempTableThreshold;
+        }
+
+        public String getTimeWindowMode() {
+            return timeWindowMode;
+        }
+
+        public void setTimeWindowMode(String timeWindowMode) {
+            this.timeWindowMode = timeWindowMode;
+        }
     }
 
     public static class ForeignKeySpec {
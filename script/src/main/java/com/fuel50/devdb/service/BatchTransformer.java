@@ -0,0 +1,132 @@
+package com.fuel50.devdb.service;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Collects rows into column-oriented batches and masks each batch on a fork-join pool,
+ * so CPU-heavy transforms no longer run one cell at a time behind JDBC reads. Rows reach
+ * the sink in the order they were added.
+ */
+public class BatchTransformer {
+    public static final int DEFAULT_BATCH_SIZE = 4096;
+
+    // Row ranges at or below this size are processed without splitting further
+    private static final int SPLIT_THRESHOLD = 256;
+
+    private final ColumnTransformPlan plan;
+    private final ForkJoinPool pool;
+    private final PartitionedExtractor.RowSink sink;
+    private final Object[][] columns;
+    private final Object[][] keys;
+    private final Object[][] derived;
+    private final byte[][] rows;
+    private int size;
+
+    private interface RangeAction {
+        void run(int from, int to);
+    }
+
+    private static final class RangeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final RangeAction action;
+        private final int from;
+        private final int to;
+        private final int threshold;
+
+        RangeTask(RangeAction action, int from, int to) {
+            this(action, from, to, SPLIT_THRESHOLD);
+        }
+
+        RangeTask(RangeAction action, int from, int to, int threshold) {
+            this.action = action;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= threshold) {
+                action.run(from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new RangeTask(action, from, middle, threshold), new RangeTask(action, middle, to, threshold));
+        }
+    }
+
+    public BatchTransformer(ColumnTransformPlan plan, int batchSize, ForkJoinPool pool,
+            PartitionedExtractor.RowSink sink) {
+        this.plan = plan;
+        this.pool = pool;
+        this.sink = sink;
+        this.columns = new Object[plan.getColumnCount()][batchSize];
+        this.keys = new Object[plan.getSlotCount()][batchSize];
+        this.derived = new Object[plan.getColumnCount()][batchSize];
+        this.rows = new byte[batchSize][];
+    }
+
+    public void add(ResultSet rs) throws SQLException {
+        plan.capture(rs, columns, keys, size);
+        if (++size == rows.length) {
+            flush();
+        }
+    }
+
+    /** Transforms and emits the rows collected so far. */
+    public void flush() {
+        if (size == 0) {
+            return;
+        }
+        int count = size;
+
+        // Slots touch disjoint columns, so every slot's row ranges can run at the same time;
+        // a slot with a transform that is not thread-safe is processed as one range
+        List<RangeTask> tasks = new ArrayList<>();
+        for (int slot = 0; slot < plan.getSlotCount(); slot++) {
+            int current = slot;
+            tasks.add(new RangeTask((from, to) -> plan.transformSlot(current, columns, derived, keys, from, to),
+                    0, count, plan.isSlotThreadSafe(slot) ? SPLIT_THRESHOLD : count));
+        }
+        if (!tasks.isEmpty()) {
+            pool.invoke(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    invokeAll(tasks);
+                }
+            });
+        }
+
+        plan.transformUnique(columns, keys, count);
+
+        pool.invoke(new RangeTask((from, to) -> {
+            for (int r = from; r < to; r++) {
+                rows[r] = plan.formatRow(columns, r);
+            }
+        }, 0, count));
+
+        for (int r = 0; r < count; r++) {
+            sink.accept(rows[r]);
+        }
+
+        // Drop references so the previous batch can be collected
+        for (Object[] column : columns) {
+            Arrays.fill(column, 0, count, null);
+        }
+        for (Object[] key : keys) {
+            Arrays.fill(key, 0, count, null);
+        }
+        for (Object[] values : derived) {
+            Arrays.fill(values, 0, count, null);
+        }
+        Arrays.fill(rows, 0, count, null);
+        size = 0;
+    }
+}
@@ -0,0 +1,104 @@
+package com.fuel50.devdb.service;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Runs a query of the form {@code <prefix> IN (?, ?, ...) <suffix>} over an {@link IdSet}
+ * in fixed-size chunks. Every full chunk reuses the same prepared statement with bound
+ * parameters, and rows are handed to the caller as they are read.
+ */
+public class BatchedIdLookup {
+    public static final int DEFAULT_CHUNK_SIZE = 1000;
+
+    @FunctionalInterface
+    public interface RowHandler {
+        /** Handles the current row; returning false stops the lookup. */
+        boolean onRow(ResultSet rs) throws SQLException;
+    }
+
+    private final Connection conn;
+    private final int chunkSize;
+
+    public BatchedIdLookup(Connection conn, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+        this.conn = conn;
+        this.chunkSize = chunkSize;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Streams every row matching the ids through the handler.
+     *
+     * @return the number of rows handed to the handler
+     */
+    public long forEachRow(String prefix, String suffix, IdSet ids, RowHandler handler) throws SQLException {
+        int total = ids.size();
+        if (total == 0) {
+            return 0;
+        }
+
+        long[] rows = new long[1];
+        int fullChunks = total / chunkSize;
+        int remainder = total % chunkSize;
+
+        if (fullChunks > 0) {
+            try (PreparedStatement stmt = conn.prepareStatement(buildQuery(prefix, suffix, chunkSize))) {
+                for (int chunk = 0; chunk < fullChunks; chunk++) {
+                    if (!runChunk(stmt, ids, chunk * chunkSize, chunkSize, handler, rows)) {
+                        return rows[0];
+                    }
+                }
+            }
+        }
+
+        if (remainder > 0) {
+            try (PreparedStatement stmt = conn.prepareStatement(buildQuery(prefix, suffix, remainder))) {
+                runChunk(stmt, ids, fullChunks * chunkSize, remainder, handler, rows);
+            }
+        }
+
+        return rows[0];
+    }
+
+    // Returns false when the handler asked to stop
+    private boolean runChunk(PreparedStatement stmt, IdSet ids, int offset, int length, RowHandler handler,
+            long[] rows) throws SQLException {
+        for (int i = 0; i < length; i++) {
+            stmt.setLong(i + 1, ids.get(offset + i));
+        }
+
+        try (ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                rows[0]++;
+                if (!handler.onRow(rs)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static String buildQuery(String prefix, String suffix, int placeholders) {
+        StringBuilder query = new StringBuilder(prefix.length() + suffix.length() + placeholders * 3 + 8);
+        query.append(prefix).append(" IN (");
+        for (int i = 0; i < placeholders; i++) {
+            if (i > 0) {
+                query.append(", ");
+            }
+            query.append('?');
+        }
+        query.append(')');
+        if (!suffix.isEmpty()) {
+            query.append(' ').append(suffix);
+        }
+        return query.toString();
+    }
+}
@@ -0,0 +1,170 @@
+package com.fuel50.devdb.service;
+
+import com.fuel50.devdb.model.SchemaMetadata;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes each table as a binary snapshot, read back by {@link BinarySnapshotReader}, plus a
+ * control script that names the snapshots in load order and carries any other statements.
+ *
+ * A snapshot is a header (magic, version, table name and typed columns), the encoded rows
+ * grouped into blocks of about {@link #BLOCK_BYTES}, an index of every block's offset,
+ * length and row count, and a fixed-size trailer pointing at the data and the index.
+ */
+public class BinaryDumpWriter implements DumpWriter {
+    public static final String DATA_DIR = "lightweight-bin";
+
+    /** Script lines naming a snapshot to load; an ordinary SQL comment to anything else. */
+    public static final String SNAPSHOT_DIRECTIVE = "-- @snapshot ";
+
+    static final byte[] MAGIC = "DVDBSNAP".getBytes(StandardCharsets.US_ASCII);
+    static final byte[] TRAILER_MAGIC = "DVDBINDX".getBytes(StandardCharsets.US_ASCII);
+    static final short VERSION = 1;
+    // Data offset, index offset and row count, then the trailer magic
+    static final int TRAILER_BYTES = 3 * Long.BYTES + 8;
+
+    private static final int BLOCK_BYTES = 1 << 20;
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final Path dataDir;
+    private final SchemaMetadata metadata;
+    private final Writer script;
+
+    private DataOutputStream table;
+    private MeteredOutputStream metered;
+    private long position;
+    private long rows;
+    private final List<long[]> blocks = new ArrayList<>();
+    private long blockOffset;
+    private int blockBytes;
+    private int blockRows;
+    private long bytes;
+    private long streamNanos;
+
+    public BinaryDumpWriter(Path scriptFile, SchemaMetadata metadata) throws IOException {
+        this.dataDir = scriptFile.resolveSibling(DATA_DIR);
+        this.metadata = metadata;
+        Files.createDirectories(dataDir);
+        this.script = Files.newBufferedWriter(scriptFile, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void println(String line) throws IOException {
+        script.write(line);
+        script.write('\n');
+    }
+
+    @Override
+    public void println() throws IOException {
+        script.write('\n');
+    }
+
+    @Override
+    public void beginTable(String tableName, List<String> columnNames, String upsertClause) throws IOException {
+        // Upsert deltas are rejected by LightweightGenerator.validateOptions, so no clause reaches here
+        endTable();
+
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(header);
+        out.write(MAGIC);
+        out.writeShort(VERSION);
+        out.writeUTF(tableName);
+        BinaryRowCodec.forTable(metadata.getTables().get(tableName), columnNames).writeColumns(out);
+
+        String fileName = tableName + ".bin";
+        metered = new MeteredOutputStream(Files.newOutputStream(dataDir.resolve(fileName)));
+        table = new DataOutputStream(new BufferedOutputStream(metered, BUFFER_SIZE));
+        table.write(header.toByteArray());
+        position = header.size();
+        rows = 0;
+        blocks.clear();
+        blockRows = 0;
+
+        println(SNAPSHOT_DIRECTIVE + DATA_DIR + "/" + fileName);
+    }
+
+    @Override
+    public void writeRow(byte[] row) throws IOException {
+        if (blockRows == 0) {
+            blockOffset = position;
+            blockBytes = 0;
+        }
+        table.write(row);
+        position += row.length;
+        blockBytes += row.length;
+        blockRows++;
+        rows++;
+
+        if (blockBytes >= BLOCK_BYTES) {
+            endBlock();
+        }
+    }
+
+    private void endBlock() {
+        if (blockRows > 0) {
+            blocks.add(new long[] { blockOffset, blockBytes, blockRows });
+        }
+        blockRows = 0;
+    }
+
+    @Override
+    public void endTable() throws IOException {
+        if (table == null) {
+            return;
+        }
+        endBlock();
+
+        // The header is everything before the first block
+        long dataOffset = blocks.isEmpty() ? position : blocks.get(0)[0];
+        long indexOffset = position;
+        table.writeInt(blocks.size());
+        for (long[] block : blocks) {
+            table.writeLong(block[0]);
+            table.writeInt((int) block[1]);
+            table.writeInt((int) block[2]);
+        }
+        table.writeLong(dataOffset);
+        table.writeLong(indexOffset);
+        table.writeLong(rows);
+        table.write(TRAILER_MAGIC);
+        table.close();
+
+        bytes += metered.getBytes();
+        streamNanos += metered.getNanos();
+        table = null;
+    }
+
+    @Override
+    public long getUncompressedBytes() {
+        return bytes + (table != null ? metered.getBytes() : 0);
+    }
+
+    @Override
+    public long getCompressedBytes() {
+        return getUncompressedBytes();
+    }
+
+    @Override
+    public long getStreamNanos() {
+        return streamNanos + (table != null ? metered.getNanos() : 0);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            endTable();
+        } finally {
+            script.close();
+        }
+    }
+}
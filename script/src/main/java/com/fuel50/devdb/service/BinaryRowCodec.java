@@ -0,0 +1,352 @@
+package com.fuel50.devdb.service;
+
+import com.fuel50.devdb.model.SchemaMetadata;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Encodes rows for binary snapshots using the column types from the extraction metadata.
+ * Each value is a presence byte followed, when present, by a fixed-width number or a
+ * length-prefixed byte string. Values are coerced to the declared type on the way in, so a
+ * masked {@code DECIMAL} is stored as a decimal at the column's scale, not as a double.
+ */
+public class BinaryRowCodec {
+    private static final byte NULL = 0;
+    private static final byte PRESENT = 1;
+
+    /** How a column's values are stored. */
+    public enum Type {
+        LONG(Types.BIGINT),
+        DECIMAL(Types.DECIMAL),
+        DOUBLE(Types.DOUBLE),
+        STRING(Types.VARCHAR),
+        BYTES(Types.VARBINARY),
+        /** Days since the epoch. */
+        DATE(Types.DATE),
+        /** Seconds since the epoch of the wall-clock value, then nanoseconds. */
+        TIMESTAMP(Types.TIMESTAMP);
+
+        private final int sqlType;
+
+        Type(int sqlType) {
+            this.sqlType = sqlType;
+        }
+
+        static Type of(SchemaMetadata.ColumnMetadata column) {
+            String dataType = column.getDataType() != null ? column.getDataType().toLowerCase() : "";
+            String columnType = column.getColumnType() != null ? column.getColumnType().toLowerCase() : "";
+            switch (dataType) {
+                case "bigint":
+                    // Unsigned BIGINT does not fit a signed long
+                    return columnType.contains("unsigned") ? DECIMAL : LONG;
+                case "tinyint":
+                case "smallint":
+                case "mediumint":
+                case "int":
+                case "integer":
+                case "year":
+                    return LONG;
+                case "decimal":
+                case "numeric":
+                    return DECIMAL;
+                case "float":
+                case "double":
+                case "real":
+                    return DOUBLE;
+                case "date":
+                    return DATE;
+                case "datetime":
+                case "timestamp":
+                    return TIMESTAMP;
+                case "binary":
+                case "varbinary":
+                case "tinyblob":
+                case "blob":
+                case "mediumblob":
+                case "longblob":
+                case "bit":
+                    return BYTES;
+                default:
+                    // Text, enums, sets, JSON and TIME (which can exceed a day) travel as strings
+                    return STRING;
+            }
+        }
+    }
+
+    /** A column as recorded in the snapshot header. */
+    public static class Column {
+        private final String name;
+        private final Type type;
+        private final int scale;
+
+        public Column(String name, Type type, int scale) {
+            this.name = name;
+            this.type = type;
+            this.scale = scale;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Type getType() {
+            return type;
+        }
+
+        public int getScale() {
+            return scale;
+        }
+    }
+
+    private final List<Column> columns;
+    private final ThreadLocal<ByteArrayOutputStream> buffers =
+            ThreadLocal.withInitial(() -> new ByteArrayOutputStream(256));
+
+    public BinaryRowCodec(List<Column> columns) {
+        this.columns = columns;
+    }
+
+    /** Builds the codec for the given output columns of a table. */
+    public static BinaryRowCodec forTable(SchemaMetadata.TableMetadata table, List<String> columnNames) {
+        List<Column> columns = new ArrayList<>();
+        for (String name : columnNames) {
+            SchemaMetadata.ColumnMetadata metadata = table.getColumns().stream()
+                    .filter(c -> c.getName().equals(name))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException(
+                            "Column " + table.getName() + "." + name + " not found in schema metadata"));
+            Type type = Type.of(metadata);
+            int scale = type == Type.DECIMAL && metadata.getNumericScale() != null ? metadata.getNumericScale() : 0;
+            columns.add(new Column(name, type, scale));
+        }
+        return new BinaryRowCodec(columns);
+    }
+
+    public List<Column> getColumns() {
+        return columns;
+    }
+
+    public void writeColumns(DataOutputStream out) throws IOException {
+        out.writeShort(columns.size());
+        for (Column column : columns) {
+            out.writeUTF(column.getName());
+            out.writeByte(column.getType().ordinal());
+            out.writeShort(column.getScale());
+        }
+    }
+
+    public static BinaryRowCodec readColumns(DataInputStream in) throws IOException {
+        int count = in.readUnsignedShort();
+        List<Column> columns = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String name = in.readUTF();
+            int type = in.readUnsignedByte();
+            if (type >= Type.values().length) {
+                throw new IOException("Unknown column type " + type + " for column " + name);
+            }
+            columns.add(new Column(name, Type.values()[type], in.readShort()));
+        }
+        return new BinaryRowCodec(columns);
+    }
+
+    public byte[] encode(Object[] values) {
+        ByteArrayOutputStream buffer = buffers.get();
+        buffer.reset();
+        DataOutputStream out = new DataOutputStream(buffer);
+        try {
+            for (int i = 0; i < columns.size(); i++) {
+                writeValue(out, columns.get(i), values[i]);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+
+    private void writeValue(DataOutputStream out, Column column, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+            return;
+        }
+        out.writeByte(PRESENT);
+
+        switch (column.getType()) {
+            case LONG:
+                out.writeLong(toLong(value));
+                break;
+            case DECIMAL:
+                BigDecimal decimal = toDecimal(value).setScale(column.getScale(), RoundingMode.HALF_UP);
+                writeBytes(out, decimal.unscaledValue().toByteArray());
+                break;
+            case DOUBLE:
+                out.writeDouble(value instanceof Number ? ((Number) value).doubleValue()
+                        : Double.parseDouble(value.toString()));
+                break;
+            case DATE:
+                out.writeLong(toDate(value).toEpochDay());
+                break;
+            case TIMESTAMP:
+                LocalDateTime timestamp = toTimestamp(value);
+                out.writeLong(timestamp.toEpochSecond(ZoneOffset.UTC));
+                out.writeInt(timestamp.getNano());
+                break;
+            case BYTES:
+                writeBytes(out, toBytes(value));
+                break;
+            default:
+                writeBytes(out, (value instanceof Boolean ? ((Boolean) value ? "1" : "0") : value.toString())
+                        .getBytes(StandardCharsets.UTF_8));
+                break;
+        }
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Reads the row at the buffer's position and binds it to the statement's first
+     * parameters, leaving the buffer at the start of the next row.
+     */
+    public void bind(ByteBuffer row, PreparedStatement stmt) throws SQLException {
+        for (int i = 0; i < columns.size(); i++) {
+            Column column = columns.get(i);
+            int parameter = i + 1;
+            if (row.get() == NULL) {
+                stmt.setNull(parameter, column.getType().sqlType);
+                continue;
+            }
+
+            switch (column.getType()) {
+                case LONG:
+                    stmt.setLong(parameter, row.getLong());
+                    break;
+                case DECIMAL:
+                    stmt.setBigDecimal(parameter, new BigDecimal(new BigInteger(readBytes(row)), column.getScale()));
+                    break;
+                case DOUBLE:
+                    stmt.setDouble(parameter, row.getDouble());
+                    break;
+                case DATE:
+                    stmt.setDate(parameter, java.sql.Date.valueOf(LocalDate.ofEpochDay(row.getLong())));
+                    break;
+                case TIMESTAMP:
+                    long seconds = row.getLong();
+                    stmt.setTimestamp(parameter,
+                            Timestamp.valueOf(LocalDateTime.ofEpochSecond(seconds, row.getInt(), ZoneOffset.UTC)));
+                    break;
+                case BYTES:
+                    stmt.setBytes(parameter, readBytes(row));
+                    break;
+                default:
+                    int length = row.getInt();
+                    ByteBuffer text = row.slice().limit(length);
+                    stmt.setString(parameter, StandardCharsets.UTF_8.decode(text).toString());
+                    row.position(row.position() + length);
+                    break;
+            }
+        }
+    }
+
+    private static byte[] readBytes(ByteBuffer row) {
+        byte[] bytes = new byte[row.getInt()];
+        row.get(bytes);
+        return bytes;
+    }
+
+    private static long toLong(Object value) {
+        if (value instanceof Boolean) {
+            return (Boolean) value ? 1 : 0;
+        }
+        if (value instanceof Double || value instanceof Float) {
+            // Noise on an integer column; MySQL rounds the same way on insert
+            return Math.round(((Number) value).doubleValue());
+        }
+        if (value instanceof BigDecimal) {
+            return ((BigDecimal) value).setScale(0, RoundingMode.HALF_UP).longValueExact();
+        }
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        }
+        if (value instanceof java.sql.Date) {
+            // Connector/J returns YEAR columns as dates
+            return ((java.sql.Date) value).toLocalDate().getYear();
+        }
+        return Long.parseLong(value.toString().trim());
+    }
+
+    private static BigDecimal toDecimal(Object value) {
+        if (value instanceof BigDecimal) {
+            return (BigDecimal) value;
+        }
+        if (value instanceof BigInteger) {
+            return new BigDecimal((BigInteger) value);
+        }
+        if (value instanceof Double || value instanceof Float) {
+            return BigDecimal.valueOf(((Number) value).doubleValue());
+        }
+        if (value instanceof Number) {
+            return BigDecimal.valueOf(((Number) value).longValue());
+        }
+        return new BigDecimal(value.toString().trim());
+    }
+
+    private static LocalDate toDate(Object value) {
+        if (value instanceof java.sql.Date) {
+            return ((java.sql.Date) value).toLocalDate();
+        }
+        if (value instanceof LocalDate) {
+            return (LocalDate) value;
+        }
+        if (value instanceof LocalDateTime) {
+            return ((LocalDateTime) value).toLocalDate();
+        }
+        if (value instanceof Timestamp) {
+            return ((Timestamp) value).toLocalDateTime().toLocalDate();
+        }
+        return LocalDate.parse(value.toString().trim());
+    }
+
+    private static LocalDateTime toTimestamp(Object value) {
+        if (value instanceof Timestamp) {
+            return ((Timestamp) value).toLocalDateTime();
+        }
+        if (value instanceof LocalDateTime) {
+            return (LocalDateTime) value;
+        }
+        if (value instanceof java.sql.Date) {
+            return ((java.sql.Date) value).toLocalDate().atStartOfDay();
+        }
+        return Timestamp.valueOf(value.toString().trim()).toLocalDateTime();
+    }
+
+    private static byte[] toBytes(Object value) {
+        if (value instanceof byte[]) {
+            return (byte[]) value;
+        }
+        if (value instanceof Boolean) {
+            // BIT(1) comes back as a boolean
+            return new byte[] { (byte) ((Boolean) value ? 1 : 0) };
+        }
+        return value.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,140 @@
+package com.fuel50.devdb.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads a snapshot written by {@link BinaryDumpWriter}. Blocks are memory-mapped one at a
+ * time and rows are bound to a statement straight from the mapping, so restoring a table
+ * never turns its values into SQL text.
+ */
+public class BinarySnapshotReader implements Closeable {
+    private final FileChannel channel;
+    private final String tableName;
+    private final BinaryRowCodec codec;
+    private final long rowCount;
+    private final long[] blockOffsets;
+    private final int[] blockBytes;
+    private final int[] blockRows;
+
+    private BinarySnapshotReader(Path file, FileChannel channel) throws IOException {
+        this.channel = channel;
+
+        long size = channel.size();
+        if (size < BinaryDumpWriter.MAGIC.length + BinaryDumpWriter.TRAILER_BYTES) {
+            throw new IOException(file + " is too short to be a snapshot");
+        }
+
+        ByteBuffer trailer = map(size - BinaryDumpWriter.TRAILER_BYTES, BinaryDumpWriter.TRAILER_BYTES);
+        long dataOffset = trailer.getLong();
+        long indexOffset = trailer.getLong();
+        this.rowCount = trailer.getLong();
+        byte[] magic = new byte[BinaryDumpWriter.TRAILER_MAGIC.length];
+        trailer.get(magic);
+        if (!Arrays.equals(magic, BinaryDumpWriter.TRAILER_MAGIC)) {
+            throw new IOException(file + " has no snapshot index; it may be truncated");
+        }
+
+        byte[] header = new byte[(int) dataOffset];
+        map(0, dataOffset).get(header);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(header));
+        magic = new byte[BinaryDumpWriter.MAGIC.length];
+        in.readFully(magic);
+        if (!Arrays.equals(magic, BinaryDumpWriter.MAGIC)) {
+            throw new IOException(file + " is not a snapshot");
+        }
+        short version = in.readShort();
+        if (version != BinaryDumpWriter.VERSION) {
+            throw new IOException(file + " is snapshot version " + version + ", expected "
+                    + BinaryDumpWriter.VERSION);
+        }
+        this.tableName = in.readUTF();
+        this.codec = BinaryRowCodec.readColumns(in);
+
+        ByteBuffer index = map(indexOffset, size - BinaryDumpWriter.TRAILER_BYTES - indexOffset);
+        int blocks = index.getInt();
+        this.blockOffsets = new long[blocks];
+        this.blockBytes = new int[blocks];
+        this.blockRows = new int[blocks];
+        for (int i = 0; i < blocks; i++) {
+            blockOffsets[i] = index.getLong();
+            blockBytes[i] = index.getInt();
+            blockRows[i] = index.getInt();
+        }
+    }
+
+    public static BinarySnapshotReader open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            return new BinarySnapshotReader(file, channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private MappedByteBuffer map(long offset, long length) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public List<BinaryRowCodec.Column> getColumns() {
+        return codec.getColumns();
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    public int getBlockCount() {
+        return blockOffsets.length;
+    }
+
+    /** Walks the rows in file order, mapping each block as it is reached. */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    public class Cursor {
+        private int block = -1;
+        private ByteBuffer rows;
+        private int remaining;
+
+        /**
+         * Binds the next row to the statement's parameters, in column order.
+         *
+         * @return false once every row has been bound
+         */
+        public boolean bindNext(PreparedStatement stmt) throws SQLException, IOException {
+            while (remaining == 0) {
+                if (++block >= blockOffsets.length) {
+                    return false;
+                }
+                rows = map(blockOffsets[block], blockBytes[block]);
+                remaining = blockRows[block];
+            }
+            codec.bind(rows, stmt);
+            remaining--;
+            return true;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
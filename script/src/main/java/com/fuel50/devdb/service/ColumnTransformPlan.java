@@ -0,0 +1,371 @@
+package com.fuel50.devdb.service;
+
+import com.fuel50.devdb.masking.ColumnTransform;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * The compiled form of a table's column rules: for each output column, its position in
+ * the {@code SELECT *} result set and the transform to apply (null means keep as is).
+ *
+ * Transformed columns point at a key slot, one per distinct (key column, hasher) pair.
+ * Each slot's key value is read and hashed at most once per row, and every column sharing
+ * the slot derives its value from that digest.
+ *
+ * Derived values are looked up in the column's cache and then in the optional persistent
+ * {@link MaskingDictionary} before anything is hashed.
+ *
+ * Unique columns remember a fingerprint of every value they produce. A value that was
+ * already produced is re-derived from the key plus an attempt counter, so the replacement
+ * is the same on every run that sees the rows in the same order.
+ */
+public class ColumnTransformPlan {
+    // Output spaces this crowded are exhausted, not merely colliding
+    private static final int MAX_UNIQUE_ATTEMPTS = 100;
+
+    private final String tableName;
+    private final List<String> columnNames;
+    private final int[] resultSetIndexes;
+    private final ColumnTransform[] transforms;
+    private final int[] keySlots;
+    private final int[][] slotColumns;
+    private final TransformCache[] caches;
+    private final int[] slotKeyIndexes;
+    private final DeterministicHasher[] slotHashers;
+    private final String salt;
+    private final FingerprintSet[] uniqueSets;
+    private final long[] collisions;
+    private final int[] uniqueColumns;
+    private final String[] transformIds;
+    private final boolean[] serial;
+    private final MaskingDictionary dictionary;
+    private final DumpFormat format;
+    private final BinaryRowCodec codec;
+    private final ThreadLocal<RowContext> rowContext;
+
+    // Per-thread scratch state, reset for every row
+    private static final class RowContext {
+        final Object[] keys;
+        final boolean[] keysRead;
+        final DeterministicHasher.Digest[] digests;
+        final boolean[] digested;
+        final DeterministicHasher.Digest scratch = new DeterministicHasher.Digest();
+        final Object[] values;
+
+        RowContext(int slots, int columns) {
+            values = new Object[columns];
+            keys = new Object[slots];
+            keysRead = new boolean[slots];
+            digests = new DeterministicHasher.Digest[slots];
+            digested = new boolean[slots];
+            for (int i = 0; i < slots; i++) {
+                digests[i] = new DeterministicHasher.Digest();
+            }
+        }
+
+        void reset() {
+            Arrays.fill(keysRead, false);
+            Arrays.fill(digested, false);
+        }
+    }
+
+    public ColumnTransformPlan(String tableName, List<String> columnNames, int[] resultSetIndexes,
+            ColumnTransform[] transforms, int[] keySlots, TransformCache[] caches, int[] slotKeyIndexes,
+            DeterministicHasher[] slotHashers, String salt, FingerprintSet[] uniqueSets, String[] transformIds,
+            boolean[] serial, MaskingDictionary dictionary, DumpFormat format, BinaryRowCodec codec) {
+        this.tableName = tableName;
+        this.columnNames = Collections.unmodifiableList(columnNames);
+        this.resultSetIndexes = resultSetIndexes;
+        this.transforms = transforms;
+        this.keySlots = keySlots;
+        this.caches = caches;
+        this.slotKeyIndexes = slotKeyIndexes;
+        this.slotHashers = slotHashers;
+        this.salt = salt;
+        this.uniqueSets = uniqueSets;
+        this.transformIds = transformIds;
+        this.serial = serial;
+        this.dictionary = dictionary;
+        this.format = format;
+        this.codec = codec;
+        this.collisions = new long[uniqueSets.length];
+        this.uniqueColumns = IntStream.range(0, uniqueSets.length).filter(i -> uniqueSets[i] != null).toArray();
+        this.rowContext = ThreadLocal.withInitial(() -> new RowContext(slotKeyIndexes.length, transforms.length));
+
+        this.slotColumns = new int[slotKeyIndexes.length][];
+        for (int slot = 0; slot < slotKeyIndexes.length; slot++) {
+            int count = 0;
+            for (int keySlot : keySlots) {
+                count += keySlot == slot ? 1 : 0;
+            }
+            slotColumns[slot] = new int[count];
+            for (int i = 0, n = 0; i < keySlots.length; i++) {
+                if (keySlots[i] == slot) {
+                    slotColumns[slot][n++] = i;
+                }
+            }
+        }
+    }
+
+    public List<String> getColumnNames() {
+        return columnNames;
+    }
+
+    /** Caches by column name, in output order. */
+    public Map<String, TransformCache> getCaches() {
+        Map<String, TransformCache> cached = new LinkedHashMap<>();
+        for (int i = 0; i < caches.length; i++) {
+            if (caches[i] != null) {
+                cached.put(columnNames.get(i), caches[i]);
+            }
+        }
+        return cached;
+    }
+
+    /** Collisions resolved by re-derivation, by unique column name. */
+    public Map<String, Long> getUniqueCollisions() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (int column : uniqueColumns) {
+            synchronized (uniqueSets[column]) {
+                counts.put(columnNames.get(column), collisions[column]);
+            }
+        }
+        return counts;
+    }
+
+    /** Whether any transformed column must stay unique, which makes the output depend on row order. */
+    public boolean hasUniqueColumns() {
+        return uniqueColumns.length > 0;
+    }
+
+    /** Releases the fingerprints held for unique columns once the table is written. */
+    public void closeUniqueSets() throws IOException {
+        for (int column : uniqueColumns) {
+            synchronized (uniqueSets[column]) {
+                uniqueSets[column].close();
+            }
+        }
+    }
+
+    public int getColumnCount() {
+        return transforms.length;
+    }
+
+    public int getSlotCount() {
+        return slotKeyIndexes.length;
+    }
+
+    /** Copies row {@code row} of the batch: source values into {@code columns}, key values into {@code keys}. */
+    public void capture(ResultSet rs, Object[][] columns, Object[][] keys, int row) throws SQLException {
+        for (int i = 0; i < resultSetIndexes.length; i++) {
+            columns[i][row] = rs.getObject(resultSetIndexes[i]);
+        }
+        for (int slot = 0; slot < slotKeyIndexes.length; slot++) {
+            keys[slot][row] = rs.getObject(slotKeyIndexes[slot]);
+        }
+    }
+
+    /** Whether rows of {@code slot} may be transformed on several threads at once. */
+    public boolean isSlotThreadSafe(int slot) {
+        for (int column : slotColumns[slot]) {
+            if (serial[column]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Transforms, in place, every non-unique column keyed by {@code slot} for batch rows
+     * {@code [from, to)}, using {@code derived} as scratch space. Safe to call concurrently
+     * for different slots, and for different row ranges when the slot is thread-safe.
+     */
+    public void transformSlot(int slot, Object[][] columns, Object[][] derived, Object[][] keys, int from, int to) {
+        RowContext row = rowContext.get();
+        for (int r = from; r < to; r++) {
+            row.keys[slot] = keys[slot][r];
+            row.digested[slot] = false;
+            for (int column : slotColumns[slot]) {
+                Object value = columns[column][r];
+                if (value != null && uniqueSets[column] == null) {
+                    derived[column][r] = derive(row, column, value);
+                }
+            }
+        }
+        for (int column : slotColumns[slot]) {
+            if (uniqueSets[column] == null) {
+                transforms[column].applyBatch(columns[column], derived[column], from, to);
+            }
+        }
+    }
+
+    /**
+     * Transforms, in place, the unique columns for the first {@code count} batch rows.
+     * Runs in row order on the calling thread so collisions resolve the same way every run.
+     */
+    public void transformUnique(Object[][] columns, Object[][] keys, int count) {
+        if (uniqueColumns.length == 0) {
+            return;
+        }
+        RowContext row = rowContext.get();
+        for (int r = 0; r < count; r++) {
+            for (int column : uniqueColumns) {
+                int slot = keySlots[column];
+                row.keys[slot] = keys[slot][r];
+                row.digested[slot] = false;
+                Object value = columns[column][r];
+                if (value != null) {
+                    columns[column][r] = transformColumn(row, column, value);
+                }
+            }
+        }
+    }
+
+    public byte[] formatRow(Object[][] columns, int row) {
+        Object[] values = rowContext.get().values;
+        for (int i = 0; i < columns.length; i++) {
+            values[i] = columns[i][row];
+        }
+        return encode(values);
+    }
+
+    public byte[] formatRow(ResultSet rs) throws SQLException {
+        RowContext row = rowContext.get();
+        row.reset();
+
+        Object[] values = row.values;
+        for (int i = 0; i < transforms.length; i++) {
+            Object value = rs.getObject(resultSetIndexes[i]);
+            ColumnTransform transform = transforms[i];
+            if (value != null && transform != null) {
+                int slot = keySlots[i];
+                if (!row.keysRead[slot]) {
+                    row.keys[slot] = rs.getObject(slotKeyIndexes[slot]);
+                    row.keysRead[slot] = true;
+                }
+                if (serial[i]) {
+                    synchronized (transform) {
+                        value = transformColumn(row, i, value);
+                    }
+                } else {
+                    value = transformColumn(row, i, value);
+                }
+            }
+            values[i] = value;
+        }
+        return encode(values);
+    }
+
+    // Binary rows keep their types; text formats are rendered and sent on as UTF-8
+    private byte[] encode(Object[] values) {
+        if (codec != null) {
+            return codec.encode(values);
+        }
+        StringBuilder out = new StringBuilder(64 * values.length);
+        out.append(format.getRowStart());
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                out.append(format.getSeparator());
+            }
+            out.append(format.formatValue(values[i]));
+        }
+        return out.append(format.getRowEnd()).toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private Object transformColumn(RowContext row, int column, Object value) {
+        Object result = transforms[column].apply(value, derive(row, column, value));
+        FingerprintSet seen = uniqueSets[column];
+        if (seen == null) {
+            return result;
+        }
+
+        synchronized (seen) {
+            int attempt = 0;
+            while (!seen.add(FingerprintSet.fingerprint(String.valueOf(result)))) {
+                if (++attempt > MAX_UNIQUE_ATTEMPTS) {
+                    throw new IllegalStateException("Could not derive a unique value for " + tableName + "."
+                            + columnNames.get(column) + " after " + MAX_UNIQUE_ATTEMPTS
+                            + " attempts; its masked output space is too small for the selected rows");
+                }
+                collisions[column]++;
+
+                Object key = row.keys[keySlots[column]] != null ? row.keys[keySlots[column]] : value;
+                DeterministicHasher.Digest digest = slotHashers[keySlots[column]]
+                        .digest(salt, key + "#" + attempt, row.scratch);
+                result = transforms[column].apply(value, transforms[column].derive(digest));
+            }
+        }
+        return result;
+    }
+
+    // Expects the row's key for the column's slot to be loaded into the context already
+    private Object derive(RowContext row, int column, Object value) {
+        int slot = keySlots[column];
+        Object key = row.keys[slot];
+        if (key == null) {
+            // Without a key value the column falls back to its own value
+            return transforms[column].derive(slotHashers[slot].digest(salt, value.toString(), row.scratch));
+        }
+
+        // In-memory cache first, then the persistent dictionary, then hash
+        TransformCache cache = caches[column];
+        Object derived = cache != null ? cache.get(key) : null;
+        if (derived != null) {
+            return derived;
+        }
+
+        // Transforms that are not cacheable have no id and never reach the dictionary
+        String transformId = transformIds[column];
+        derived = dictionary != null && transformId != null ? dictionary.get(transformId, key) : null;
+        if (derived == null) {
+            if (!row.digested[slot]) {
+                slotHashers[slot].digest(salt, key.toString(), row.digests[slot]);
+                row.digested[slot] = true;
+            }
+            derived = transforms[column].derive(row.digests[slot]);
+            if (dictionary != null && transformId != null) {
+                dictionary.put(transformId, key, derived);
+            }
+        }
+        if (cache != null) {
+            cache.put(key, derived);
+        }
+        return derived;
+    }
+
+    public static String formatValue(Object value) {
+        if (value == null) {
+            return "NULL";
+        }
+
+        if (value instanceof String) {
+            return "'" + value.toString().replace("'", "''") + "'";
+        }
+
+        if (value instanceof java.sql.Timestamp) {
+            return "'" + value.toString() + "'";
+        }
+
+        if (value instanceof java.sql.Date) {
+            return "'" + value.toString() + "'";
+        }
+
+        if (value instanceof java.sql.Time) {
+            return "'" + value.toString() + "'";
+        }
+
+        if (value instanceof Boolean) {
+            return ((Boolean) value) ? "1" : "0";
+        }
+
+        return value.toString();
+    }
+}
@@ -0,0 +1,214 @@
+package com.fuel50.devdb.service;
+
+import com.fuel50.devdb.masking.ColumnTransform;
+import com.fuel50.devdb.masking.Masker;
+import com.fuel50.devdb.masking.Synthesizer;
+import com.fuel50.devdb.masking.TransformRegistry;
+import com.fuel50.devdb.model.ColumnSpec;
+import com.fuel50.devdb.model.DatabaseSpec;
+import com.fuel50.devdb.model.SchemaMetadata;
+import com.fuel50.devdb.model.TableSpec;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiles a table's column rules into a {@link ColumnTransformPlan}. Strategies, keys and
+ * defaults are resolved once here, and mask and synth types are looked up in the
+ * {@link TransformRegistry}, so unknown names fail before any rows are read rather than
+ * silently passing values through.
+ */
+public class ColumnTransformPlanner {
+    public static final int DEFAULT_CACHE_CAPACITY = 10000;
+
+    private final TransformRegistry registry;
+    private final DatabaseSpec.MaskingDefaults masking;
+    private final DeterministicHasher hasher;
+    private final DeterministicHasher secretHasher;
+    private final int cacheCapacity;
+    private final int uniqueSpillThreshold;
+    private MaskingDictionary dictionary;
+    private DumpFormat format = DumpFormat.SQL;
+
+    public ColumnTransformPlanner(TransformRegistry registry, DatabaseSpec.MaskingDefaults masking,
+            DeterministicHasher hasher, DeterministicHasher secretHasher) {
+        this.registry = registry;
+        this.masking = masking;
+        this.hasher = hasher;
+        this.secretHasher = secretHasher;
+        this.cacheCapacity = masking != null && masking.getCacheCapacity() != null
+                ? masking.getCacheCapacity()
+                : DEFAULT_CACHE_CAPACITY;
+        this.uniqueSpillThreshold = masking != null && masking.getUniqueSpillThreshold() != null
+                ? masking.getUniqueSpillThreshold()
+                : FingerprintSet.DEFAULT_SPILL_THRESHOLD;
+    }
+
+    /** Shares derived values through a persistent dictionary; null turns it off. */
+    public void setDictionary(MaskingDictionary dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    /** Layout of the rows the compiled plans format. */
+    public void setFormat(DumpFormat format) {
+        this.format = format;
+    }
+
+    public ColumnTransformPlan plan(String tableName, TableSpec table, SchemaMetadata.TableMetadata tableMetadata) {
+        List<String> columnNames = new ArrayList<>();
+        List<Integer> indexes = new ArrayList<>();
+        List<SchemaMetadata.ColumnMetadata> columns = tableMetadata.getColumns();
+
+        for (int i = 0; i < columns.size(); i++) {
+            String name = columns.get(i).getName();
+            columnNames.add(name);
+            indexes.add(i + 1);
+        }
+
+        int[] resultSetIndexes = new int[columnNames.size()];
+        ColumnTransform[] transforms = new ColumnTransform[columnNames.size()];
+        int[] keySlots = new int[columnNames.size()];
+        TransformCache[] caches = new TransformCache[columnNames.size()];
+        FingerprintSet[] uniqueSets = new FingerprintSet[columnNames.size()];
+        String[] transformIds = new String[columnNames.size()];
+        boolean[] serial = new boolean[columnNames.size()];
+        Map<String, Integer> slots = new LinkedHashMap<>();
+        List<Integer> slotKeyIndexes = new ArrayList<>();
+        List<DeterministicHasher> slotHashers = new ArrayList<>();
+
+        for (int i = 0; i < transforms.length; i++) {
+            resultSetIndexes[i] = indexes.get(i);
+            keySlots[i] = -1;
+            String qualifiedName = tableName + "." + columnNames.get(i);
+            ColumnSpec column = table.getColumns() != null ? table.getColumns().get(columnNames.get(i)) : null;
+            if (column == null) {
+                continue;
+            }
+
+            transforms[i] = compile(qualifiedName, column);
+            if (transforms[i] == null) {
+                continue;
+            }
+
+            // A column without deterministic_key is keyed by its own value
+            String keyColumn = deterministicKey(column);
+            if (keyColumn == null) {
+                keyColumn = columnNames.get(i);
+            }
+            int keyPosition = columnNames.indexOf(keyColumn);
+            if (keyPosition < 0) {
+                throw new IllegalArgumentException("Column " + qualifiedName + " uses deterministic_key '" + keyColumn
+                        + "', which is not a column of " + tableName);
+            }
+
+            // Columns sharing a key column and hasher share one digest per row
+            DeterministicHasher columnHasher = hasherFor(column);
+            String slotName = keyColumn + "/" + columnHasher.getAlgorithm();
+            Integer slot = slots.get(slotName);
+            if (slot == null) {
+                slot = slots.size();
+                slots.put(slotName, slot);
+                slotKeyIndexes.add(indexes.get(keyPosition));
+                slotHashers.add(columnHasher);
+            }
+            keySlots[i] = slot;
+            serial[i] = !isThreadSafe(column);
+
+            // Unique columns are tracked instead of cached: their keys do not repeat
+            boolean cacheable = isCacheable(column);
+            transformIds[i] = cacheable ? transformId(column, columnHasher) : null;
+            if (column.isUnique()) {
+                uniqueSets[i] = new FingerprintSet(uniqueSpillThreshold);
+            } else if (cacheable && cacheCapacity > 0) {
+                caches[i] = new TransformCache(cacheCapacity);
+            }
+        }
+
+        return new ColumnTransformPlan(tableName, columnNames, resultSetIndexes, transforms, keySlots, caches,
+                slotKeyIndexes.stream().mapToInt(Integer::intValue).toArray(),
+                slotHashers.toArray(new DeterministicHasher[0]),
+                String.valueOf(masking != null ? masking.getDeterministicSalt() : null), uniqueSets, transformIds,
+                serial, dictionary, format,
+                format == DumpFormat.BINARY ? BinaryRowCodec.forTable(tableMetadata, columnNames) : null);
+    }
+
+    private ColumnTransform compile(String qualifiedName, ColumnSpec column) {
+        String strategy = column.getStrategy();
+        if (strategy == null || "keep".equals(strategy)) {
+            return null;
+        }
+
+        switch (strategy) {
+            case "mask":
+                if (column.getMask() == null) {
+                    throw new IllegalArgumentException("Column " + qualifiedName
+                            + " uses strategy mask without a mask block");
+                }
+                Masker masker = registry.getMasker(column.getMask().getType());
+                if (masker == null) {
+                    throw new IllegalArgumentException("Unknown mask type '" + column.getMask().getType()
+                            + "' for column " + qualifiedName + " (expected " + registry.describeMaskTypes() + ")");
+                }
+                try {
+                    return masker.compile(column.getMask(), masking);
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Column " + qualifiedName + ": " + e.getMessage(), e);
+                }
+            case "synthesize":
+                if (column.getSynth() == null) {
+                    throw new IllegalArgumentException("Column " + qualifiedName
+                            + " uses strategy synthesize without a synth block");
+                }
+                Synthesizer synthesizer = registry.getSynthesizer(column.getSynth().getType());
+                if (synthesizer == null) {
+                    throw new IllegalArgumentException("Unknown synth type '" + column.getSynth().getType()
+                            + "' for column " + qualifiedName + " (expected " + registry.describeSynthTypes() + ")");
+                }
+                try {
+                    return synthesizer.compile(column.getSynth(), masking);
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Column " + qualifiedName + ": " + e.getMessage(), e);
+                }
+            default:
+                throw new IllegalArgumentException("Unknown strategy '" + strategy + "' for column " + qualifiedName
+                        + " (expected keep | mask | synthesize)");
+        }
+    }
+
+    // Identifies what a derived value depends on besides its key, for the shared dictionary
+    private String transformId(ColumnSpec column, DeterministicHasher columnHasher) {
+        if ("mask".equals(column.getStrategy())) {
+            ColumnSpec.MaskSpec mask = column.getMask();
+            return columnHasher.getAlgorithm() + "/mask/" + mask.getType() + "/" + mask.getPercent()
+                    + "/" + mask.isPreserveDomain();
+        }
+        ColumnSpec.SynthSpec synth = column.getSynth();
+        return columnHasher.getAlgorithm() + "/synth/" + synth.getType() + "/" + synth.getDomain()
+                + "/" + synth.getFormat() + "/" + (masking != null ? masking.getEmailDomain() : null);
+    }
+
+    private boolean isCacheable(ColumnSpec column) {
+        return "mask".equals(column.getStrategy())
+                ? registry.getMasker(column.getMask().getType()).isCacheable()
+                : registry.getSynthesizer(column.getSynth().getType()).isCacheable();
+    }
+
+    private boolean isThreadSafe(ColumnSpec column) {
+        return "mask".equals(column.getStrategy())
+                ? registry.getMasker(column.getMask().getType()).isThreadSafe()
+                : registry.getSynthesizer(column.getSynth().getType()).isThreadSafe();
+    }
+
+    private String deterministicKey(ColumnSpec column) {
+        // compile() has already checked that the block for the column's strategy exists
+        String key = "mask".equals(column.getStrategy())
+                ? column.getMask().getDeterministicKey()
+                : column.getSynth().getDeterministicKey();
+        return key == null || key.isEmpty() ? null : key;
+    }
+
+    private DeterministicHasher hasherFor(ColumnSpec column) {
+        return "secret".equals(column.getSensitivity()) ? secretHasher : hasher;
+    }
+}
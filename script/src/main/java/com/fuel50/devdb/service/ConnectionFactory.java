@@ -0,0 +1,12 @@
+package com.fuel50.devdb.service;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Opens new database connections for worker threads.
+ */
+@FunctionalInterface
+public interface ConnectionFactory {
+    Connection open() throws SQLException;
+}
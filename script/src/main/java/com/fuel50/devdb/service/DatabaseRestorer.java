@@ -1,10 +1,36 @@
 package com.fuel50.devdb.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mysql.cj.jdbc.JdbcStatement;
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 public class DatabaseRestorer {
+    private static final int SNAPSHOT_BATCH_SIZE = 1000;
+    private static final Pattern LOAD_DATA = Pattern.compile("^LOAD DATA LOCAL INFILE '([^']+)'",
+            Pattern.CASE_INSENSITIVE);
+
     private final Connection targetConn;
 
     public DatabaseRestorer(Connection targetConn) {
@@ -13,9 +39,190 @@ public class DatabaseRestorer {
 
     public void restore(String dumpFile) throws Exception {
         System.out.println("�� Reading dump file: " + dumpFile);
+        int statementCount = replay(targetConn, Paths.get(dumpFile), false);
+        System.out.println("✅ Restored " + statementCount + " SQL statements");
+    }
+
+    /**
+     * Restores a sharded dump from the files listed in its manifest. Every file is checked
+     * against its recorded size and SHA-256 first, and a table with a bad file is skipped.
+     * Tables are then loaded one foreign-key level at a time, the tables of a level side by
+     * side on their own connections, and a table stops at its first failed statement. A table
+     * whose foreign-key parents were skipped or failed is skipped as well.
+     *
+     * @param tables tables to restore, or empty for all of them and the post-load statements
+     * @return the tables that were skipped or failed, to retry with {@code tables}
+     */
+    public Set<String> restoreShards(Path manifestFile, ConnectionFactory connectionFactory, int parallelism,
+            Set<String> tables) throws Exception {
+        System.out.println("📋 Reading manifest: " + manifestFile);
+        Path baseDir = manifestFile.toAbsolutePath().getParent();
+        JsonNode shardList = new ObjectMapper().readTree(manifestFile.toFile()).path("shards");
+        if (!shardList.isArray()) {
+            throw new IOException(manifestFile + " lists no dump shards; generate with --sharded first");
+        }
+
+        // Parts of a table stay in file order; levels load lowest first
+        TreeMap<Integer, Map<String, List<DumpShard>>> levels = new TreeMap<>();
+        for (JsonNode node : shardList) {
+            DumpShard shard = new DumpShard();
+            shard.setFile(node.path("file").asText());
+            shard.setTable(node.path("table").isNull() ? null : node.path("table").asText());
+            shard.setPart(node.path("part").asInt());
+            shard.setFkLevel(node.path("fk_level").asInt());
+            if (node.path("references").isArray()) {
+                List<String> references = new ArrayList<>();
+                node.path("references").forEach(reference -> references.add(reference.asText()));
+                shard.setReferences(references);
+            }
+            shard.setRows(node.path("rows").asLong());
+            shard.setBytes(node.path("bytes").asLong());
+            shard.setSha256(node.path("sha256").asText());
+            if (!tables.isEmpty() && (shard.getTable() == null || !tables.contains(shard.getTable()))) {
+                continue;
+            }
+            levels.computeIfAbsent(shard.getFkLevel(), level -> new LinkedHashMap<>())
+                    .computeIfAbsent(shardLabel(shard), table -> new ArrayList<>()).add(shard);
+        }
+        for (String table : tables) {
+            if (levels.values().stream().noneMatch(level -> level.containsKey(table))) {
+                System.err.println("⚠️  Warning: Table not found in manifest: " + table);
+            }
+        }
 
-        try (FileInputStream fileStream = new FileInputStream(dumpFile);
-                Scanner scanner = new Scanner(fileStream, "UTF-8")) {
+        Set<String> failed = new ConcurrentSkipListSet<>();
+        for (Map<String, List<DumpShard>> level : levels.values()) {
+            for (Map.Entry<String, List<DumpShard>> entry : level.entrySet()) {
+                for (DumpShard shard : entry.getValue()) {
+                    String problem = verify(baseDir.resolve(shard.getFile()), shard);
+                    if (problem != null) {
+                        System.err.println("⚠️  Warning: Skipping " + entry.getKey() + ": " + shard.getFile() + " "
+                                + problem);
+                        failed.add(entry.getKey());
+                    }
+                }
+            }
+        }
+        if (failed.isEmpty()) {
+            System.out.println("✅ Verified dump files against the manifest");
+        }
+
+        int workers = Math.max(1, parallelism);
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        Set<String> lowerLevels = new HashSet<>();
+        try {
+            for (Map.Entry<Integer, Map<String, List<DumpShard>>> level : levels.entrySet()) {
+                List<Future<?>> futures = new ArrayList<>();
+                for (Map.Entry<String, List<DumpShard>> entry : level.getValue().entrySet()) {
+                    if (failed.contains(entry.getKey())) {
+                        continue;
+                    }
+                    // Its rows would break foreign keys, and a skipped table skips its own children in turn
+                    String parent = failedParent(entry.getValue().get(0), lowerLevels, failed);
+                    if (parent != null) {
+                        System.err.println("⚠️  Warning: Skipping " + entry.getKey() + ": it references " + parent
+                                + ", which was not restored");
+                        failed.add(entry.getKey());
+                        continue;
+                    }
+                    futures.add(executor.submit(() -> restoreTable(baseDir, entry.getKey(), entry.getValue(),
+                            connectionFactory, failed)));
+                }
+                // The next level references tables of this one, so it waits until they are all in
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+                System.out.println("   Restored foreign-key level " + level.getKey() + " ("
+                        + futures.size() + " tables)");
+                lowerLevels.addAll(level.getValue().keySet());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        if (failed.isEmpty()) {
+            System.out.println("✅ Restored all dump files");
+        }
+        return failed;
+    }
+
+    private void restoreTable(Path baseDir, String table, List<DumpShard> parts, ConnectionFactory connectionFactory,
+            Set<String> failed) {
+        try (Connection conn = connectionFactory.open()) {
+            int statementCount = 0;
+            long rows = 0;
+            for (DumpShard part : parts) {
+                statementCount += replay(conn, baseDir.resolve(part.getFile()), true);
+                rows += part.getRows();
+            }
+            System.out.println("   Restored " + table + ": " + rows + " rows in " + statementCount + " statements");
+        } catch (Exception e) {
+            System.err.println("⚠️  Warning: Failed to restore " + table);
+            System.err.println("   Error: " + e.getMessage());
+            failed.add(table);
+        }
+    }
+
+    // Manifests without references fall back to every table of a lower level
+    private static String failedParent(DumpShard shard, Set<String> lowerLevels, Set<String> failed) {
+        if (shard.getTable() == null) {
+            return null;
+        }
+        for (String parent : shard.getReferences() != null ? shard.getReferences() : lowerLevels) {
+            if (failed.contains(parent)) {
+                return parent;
+            }
+        }
+        return null;
+    }
+
+    private static String shardLabel(DumpShard shard) {
+        if (shard.getTable() != null) {
+            return shard.getTable();
+        }
+        String name = Paths.get(shard.getFile()).getFileName().toString();
+        return name.substring(0, name.indexOf('.'));
+    }
+
+    // Hashes the file as stored, so a compressed part is checked without inflating it
+    private static String verify(Path file, DumpShard shard) throws IOException {
+        if (!Files.exists(file)) {
+            return "is missing";
+        }
+        if (Files.size(file) != shard.getBytes()) {
+            return "is " + Files.size(file) + " bytes, expected " + shard.getBytes();
+        }
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        try (InputStream in = Files.newInputStream(file)) {
+            byte[] buffer = new byte[1 << 16];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        if (!HexFormat.of().formatHex(digest.digest()).equalsIgnoreCase(shard.getSha256())) {
+            return "does not match its checksum";
+        }
+        return null;
+    }
+
+    /**
+     * Executes the statements of one dump file.
+     *
+     * @param strict stop at the first failed statement instead of warning and carrying on
+     * @return the number of statements executed
+     */
+    private int replay(Connection conn, Path dumpFile, boolean strict) throws Exception {
+        Path baseDir = dumpFile.toAbsolutePath().getParent();
+
+        // Compressed dumps are inflated on the fly as the statements are read
+        try (InputStream dumpStream = DumpCompression.decompress(new FileInputStream(dumpFile.toFile()));
+                Scanner scanner = new Scanner(dumpStream, "UTF-8")) {
 
             StringBuilder currentStatement = new StringBuilder();
             int statementCount = 0;
@@ -23,6 +230,12 @@ public class DatabaseRestorer {
             while (scanner.hasNextLine()) {
                 String line = scanner.nextLine().trim();
 
+                if (line.startsWith(BinaryDumpWriter.SNAPSHOT_DIRECTIVE)) {
+                    String snapshot = line.substring(BinaryDumpWriter.SNAPSHOT_DIRECTIVE.length());
+                    restoreSnapshot(conn, baseDir.resolve(snapshot), strict);
+                    continue;
+                }
+
                 // Skip comments and empty lines
                 if (line.isEmpty() || line.startsWith("--")) {
                     continue;
@@ -34,10 +247,15 @@ public class DatabaseRestorer {
                 if (line.endsWith(";")) {
                     String sql = currentStatement.toString().trim();
                     if (!sql.isEmpty()) {
-                        executeStatement(sql);
+                        Matcher loadData = LOAD_DATA.matcher(sql);
+                        if (loadData.find()) {
+                            executeLoadData(conn, sql, baseDir.resolve(loadData.group(1)), strict);
+                        } else {
+                            executeStatement(conn, sql, strict);
+                        }
                         statementCount++;
 
-                        if (statementCount % 100 == 0) {
+                        if (!strict && statementCount % 100 == 0) {
                             System.out.println("   Processed " + statementCount + " statements...");
                         }
                     }
@@ -45,14 +263,80 @@ public class DatabaseRestorer {
                 }
             }
 
-            System.out.println("✅ Restored " + statementCount + " SQL statements");
+            return statementCount;
+        }
+    }
+
+    // Rows go from the mapped snapshot straight into batched inserts, without SQL text in between
+    private void restoreSnapshot(Connection conn, Path snapshot, boolean strict) throws IOException, SQLException {
+        try (BinarySnapshotReader reader = BinarySnapshotReader.open(snapshot);
+                PreparedStatement stmt = conn.prepareStatement(insertSql(reader))) {
+            BinarySnapshotReader.Cursor cursor = reader.cursor();
+            int pending = 0;
+            while (cursor.bindNext(stmt)) {
+                stmt.addBatch();
+                if (++pending == SNAPSHOT_BATCH_SIZE) {
+                    stmt.executeBatch();
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                stmt.executeBatch();
+            }
+            System.out.println("   Loaded " + reader.getRowCount() + " rows from " + snapshot.getFileName());
+        } catch (SQLException e) {
+            if (strict) {
+                throw e;
+            }
+            // Log the error but continue with other statements
+            System.err.println("⚠️  Warning: Failed to load snapshot: " + snapshot);
+            System.err.println("   Error: " + e.getMessage());
+        }
+    }
+
+    private static String insertSql(BinarySnapshotReader reader) {
+        StringBuilder columns = new StringBuilder();
+        StringBuilder placeholders = new StringBuilder();
+        for (BinaryRowCodec.Column column : reader.getColumns()) {
+            if (columns.length() > 0) {
+                columns.append(", ");
+                placeholders.append(", ");
+            }
+            columns.append(column.getName());
+            placeholders.append('?');
         }
+        return "INSERT INTO " + reader.getTableName() + " (" + columns + ") VALUES (" + placeholders + ")";
     }
 
-    private void executeStatement(String sql) throws SQLException {
-        try (Statement stmt = targetConn.createStatement()) {
+    // Connector/J sends the given stream instead of opening the named file, so compressed data files work too
+    private void executeLoadData(Connection conn, String sql, Path dataFile, boolean strict)
+            throws IOException, SQLException {
+        try (InputStream data = DumpCompression.decompress(Files.newInputStream(dataFile));
+                Statement stmt = conn.createStatement()) {
+            stmt.unwrap(JdbcStatement.class).setLocalInfileInputStream(data);
             stmt.execute(sql);
+            System.out.println("   Loaded " + stmt.getUpdateCount() + " rows from " + dataFile.getFileName());
+            if (stmt.getWarnings() != null) {
+                System.err.println("⚠️  Warning: " + dataFile.getFileName() + " loaded with warnings: "
+                        + stmt.getWarnings().getMessage());
+            }
         } catch (SQLException e) {
+            if (strict) {
+                throw e;
+            }
+            // Log the error but continue with other statements
+            System.err.println("⚠️  Warning: Failed to load data file: " + dataFile);
+            System.err.println("   Error: " + e.getMessage());
+        }
+    }
+
+    private void executeStatement(Connection conn, String sql, boolean strict) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(sql);
+        } catch (SQLException e) {
+            if (strict) {
+                throw e;
+            }
             // Log the error but continue with other statements
             System.err.println("⚠️  Warning: Failed to execute statement: "
                     + sql.substring(0, Math.min(50, sql.length())) + "...");
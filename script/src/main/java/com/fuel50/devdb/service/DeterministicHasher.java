@@ -0,0 +1,251 @@
+package com.fuel50.devdb.service;
+
+import com.fuel50.devdb.masking.KeyDigest;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Deterministic hashing for masking, without per-call allocation of digests or strings.
+ *
+ * Each thread reuses its own digest and UTF-8 buffer, results are written into
+ * caller-owned {@link Digest} objects, and callers read only the hex characters they need.
+ * In {@code SHA256} mode the output is the SHA-256 of the UTF-8 input, byte for byte what
+ * {@code MessageDigest} would give. {@code SIPHASH}
+ * mode runs SipHash-2-4 keyed from the salt and stretches its 64-bit result to 32 bytes;
+ * it is much cheaper but only meant for values that are not secret.
+ */
+public class DeterministicHasher {
+    public enum Algorithm {
+        SHA256, SIPHASH;
+
+        public static Algorithm fromConfig(String value) {
+            if (value == null || value.isEmpty() || "sha256".equalsIgnoreCase(value)) {
+                return SHA256;
+            }
+            if ("siphash".equalsIgnoreCase(value)) {
+                return SIPHASH;
+            }
+            throw new IllegalArgumentException("Unknown hash_algorithm: " + value + " (expected sha256 | siphash)");
+        }
+    }
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final int DIGEST_LENGTH = 32;
+
+    /** A reusable 32-byte digest; each call to {@link DeterministicHasher#digest} overwrites it. */
+    public static final class Digest implements KeyDigest {
+        private final byte[] bytes = new byte[DIGEST_LENGTH];
+        private final char[] chars = new char[DIGEST_LENGTH * 2];
+
+        @Override
+        public int length() {
+            return DIGEST_LENGTH;
+        }
+
+        @Override
+        public int byteAt(int index) {
+            return bytes[index] & 0xff;
+        }
+
+        @Override
+        public String hex(int from, int to) {
+            for (int i = from; i < to; i++) {
+                int b = bytes[i >> 1] & 0xff;
+                chars[i] = HEX[(i & 1) == 0 ? b >>> 4 : b & 0x0f];
+            }
+            return new String(chars, from, to - from);
+        }
+
+        @Override
+        public int hexHashCode() {
+            int h = 0;
+            for (byte value : bytes) {
+                int b = value & 0xff;
+                h = 31 * h + HEX[b >>> 4];
+                h = 31 * h + HEX[b & 0x0f];
+            }
+            return h;
+        }
+
+        byte[] bytes() {
+            return bytes;
+        }
+    }
+
+    private static final class Buffers {
+        final MessageDigest sha256;
+        byte[] input = new byte[256];
+
+        Buffers() {
+            try {
+                sha256 = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 is not available", e);
+            }
+        }
+    }
+
+    private static final ThreadLocal<Buffers> BUFFERS = ThreadLocal.withInitial(Buffers::new);
+
+    private final Algorithm algorithm;
+    private final long k0;
+    private final long k1;
+
+    public DeterministicHasher(Algorithm algorithm, String salt) {
+        this.algorithm = algorithm;
+
+        // The SipHash key is derived from the salt, so changing the salt changes every value
+        byte[] key = sha256(salt != null ? salt : "");
+        this.k0 = readLong(key, 0);
+        this.k1 = readLong(key, 8);
+    }
+
+    public Algorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    /** Hashes {@code prefix + "_" + value} into {@code digest} and returns it. */
+    public Digest digest(String prefix, String value, Digest digest) {
+        Buffers buffers = BUFFERS.get();
+        int length = encode(buffers, prefix, 0);
+        ensure(buffers, length + 1);
+        buffers.input[length++] = '_';
+        length = encode(buffers, value, length);
+
+        if (algorithm == Algorithm.SHA256) {
+            buffers.sha256.update(buffers.input, 0, length);
+            try {
+                buffers.sha256.digest(digest.bytes, 0, DIGEST_LENGTH);
+            } catch (DigestException e) {
+                throw new IllegalStateException(e);
+            }
+        } else {
+            long h = sipHash24(k0, k1, buffers.input, length);
+            // Stretch the 64-bit hash into four words with splitmix64 steps
+            for (int i = 0; i < 4; i++) {
+                h += 0x9E3779B97F4A7C15L;
+                writeLong(digest.bytes, i * 8, mix64(h));
+            }
+        }
+        return digest;
+    }
+
+    // Encodes like String.getBytes(UTF_8): unpaired surrogates become '?'
+    private static int encode(Buffers buffers, String s, int offset) {
+        ensure(buffers, offset + s.length() * 3);
+        byte[] out = buffers.input;
+        int pos = offset;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                out[pos++] = (byte) c;
+            } else if (c < 0x800) {
+                out[pos++] = (byte) (0xc0 | (c >> 6));
+                out[pos++] = (byte) (0x80 | (c & 0x3f));
+            } else if (Character.isHighSurrogate(c) && i + 1 < s.length()
+                    && Character.isLowSurrogate(s.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, s.charAt(++i));
+                out[pos++] = (byte) (0xf0 | (cp >> 18));
+                out[pos++] = (byte) (0x80 | ((cp >> 12) & 0x3f));
+                out[pos++] = (byte) (0x80 | ((cp >> 6) & 0x3f));
+                out[pos++] = (byte) (0x80 | (cp & 0x3f));
+            } else if (Character.isSurrogate(c)) {
+                out[pos++] = '?';
+            } else {
+                out[pos++] = (byte) (0xe0 | (c >> 12));
+                out[pos++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+                out[pos++] = (byte) (0x80 | (c & 0x3f));
+            }
+        }
+        return pos;
+    }
+
+    private static void ensure(Buffers buffers, int capacity) {
+        if (buffers.input.length < capacity) {
+            byte[] grown = new byte[Math.max(capacity, buffers.input.length * 2)];
+            System.arraycopy(buffers.input, 0, grown, 0, buffers.input.length);
+            buffers.input = grown;
+        }
+    }
+
+    // k0 and k1 are the two 64-bit key words. The constructor reads them big-endian from the first
+    // 16 bytes of SHA-256(salt); the reference implementation reads its 16-byte key little-endian
+    static long sipHash24(long k0, long k1, byte[] data, int length) {
+        long v0 = 0x736f6d6570736575L ^ k0;
+        long v1 = 0x646f72616e646f6dL ^ k1;
+        long v2 = 0x6c7967656e657261L ^ k0;
+        long v3 = 0x7465646279746573L ^ k1;
+
+        int end = length - (length % 8);
+        for (int i = 0; i < end; i += 8) {
+            long m = Long.reverseBytes(readLong(data, i));
+            v3 ^= m;
+            for (int r = 0; r < 2; r++) {
+                v0 += v1; v1 = Long.rotateLeft(v1, 13); v1 ^= v0; v0 = Long.rotateLeft(v0, 32);
+                v2 += v3; v3 = Long.rotateLeft(v3, 16); v3 ^= v2;
+                v0 += v3; v3 = Long.rotateLeft(v3, 21); v3 ^= v0;
+                v2 += v1; v1 = Long.rotateLeft(v1, 17); v1 ^= v2; v2 = Long.rotateLeft(v2, 32);
+            }
+            v0 ^= m;
+        }
+
+        long last = ((long) length & 0xff) << 56;
+        for (int i = 0; i < length - end; i++) {
+            last |= ((long) data[end + i] & 0xff) << (8 * i);
+        }
+
+        v3 ^= last;
+        for (int r = 0; r < 2; r++) {
+            v0 += v1; v1 = Long.rotateLeft(v1, 13); v1 ^= v0; v0 = Long.rotateLeft(v0, 32);
+            v2 += v3; v3 = Long.rotateLeft(v3, 16); v3 ^= v2;
+            v0 += v3; v3 = Long.rotateLeft(v3, 21); v3 ^= v0;
+            v2 += v1; v1 = Long.rotateLeft(v1, 17); v1 ^= v2; v2 = Long.rotateLeft(v2, 32);
+        }
+        v0 ^= last;
+
+        v2 ^= 0xff;
+        for (int r = 0; r < 4; r++) {
+            v0 += v1; v1 = Long.rotateLeft(v1, 13); v1 ^= v0; v0 = Long.rotateLeft(v0, 32);
+            v2 += v3; v3 = Long.rotateLeft(v3, 16); v3 ^= v2;
+            v0 += v3; v3 = Long.rotateLeft(v3, 21); v3 ^= v0;
+            v2 += v1; v1 = Long.rotateLeft(v1, 17); v1 ^= v2; v2 = Long.rotateLeft(v2, 32);
+        }
+        return v0 ^ v1 ^ v2 ^ v3;
+    }
+
+    /** A 64-bit seed taken from the SHA-256 of {@code key}, for seeded choices that must not depend on the JVM. */
+    public static long seed(String key) {
+        return readLong(sha256(key), 0);
+    }
+
+    static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    static byte[] sha256(String input) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(input.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    static long readLong(byte[] b, int offset) {
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = (value << 8) | (b[offset + i] & 0xff);
+        }
+        return value;
+    }
+
+    private static void writeLong(byte[] b, int offset, long value) {
+        for (int i = 7; i >= 0; i--) {
+            b[offset + i] = (byte) value;
+            value >>>= 8;
+        }
+    }
+}
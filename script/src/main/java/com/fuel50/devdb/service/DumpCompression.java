@@ -0,0 +1,98 @@
+package com.fuel50.devdb.service;
+
+import io.airlift.compress.zstd.ZstdInputStream;
+import io.airlift.compress.zstd.ZstdOutputStream;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * How the dump file is compressed as it is streamed to disk. Readers do not need to know
+ * which was used: {@link #decompress(InputStream)} recognises the format by its magic bytes.
+ */
+public enum DumpCompression {
+    NONE(""),
+    GZIP(".gz"),
+    /** Zstandard through aircompressor's pure-Java codec, so no native library is needed. */
+    ZSTD(".zst");
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final byte[] GZIP_MAGIC = { (byte) 0x1f, (byte) 0x8b };
+    private static final byte[] ZSTD_MAGIC = { (byte) 0x28, (byte) 0xb5, (byte) 0x2f, (byte) 0xfd };
+
+    private final String extension;
+
+    DumpCompression(String extension) {
+        this.extension = extension;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public static DumpCompression fromConfig(String value) {
+        if (value == null || value.isEmpty()) {
+            return NONE;
+        }
+        try {
+            return valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(
+                    "Unknown compression: " + value + " (expected none | gzip | zstd)");
+        }
+    }
+
+    /** Picks the compression matching the file's extension, {@code NONE} when there is none. */
+    public static DumpCompression fromFileName(String fileName) {
+        for (DumpCompression compression : values()) {
+            if (compression != NONE && fileName.endsWith(compression.extension)) {
+                return compression;
+            }
+        }
+        return NONE;
+    }
+
+    public OutputStream compress(OutputStream out) throws IOException {
+        switch (this) {
+            case GZIP:
+                return new GZIPOutputStream(out, BUFFER_SIZE);
+            case ZSTD:
+                return new ZstdOutputStream(out);
+            default:
+                return out;
+        }
+    }
+
+    /** Wraps the stream in the decompressor its leading magic bytes call for. */
+    public static InputStream decompress(InputStream in) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(in, BUFFER_SIZE);
+        byte[] head = new byte[ZSTD_MAGIC.length];
+        buffered.mark(head.length);
+        int read = buffered.readNBytes(head, 0, head.length);
+        buffered.reset();
+
+        if (startsWith(head, read, ZSTD_MAGIC)) {
+            return new BufferedInputStream(new ZstdInputStream(buffered), BUFFER_SIZE);
+        }
+        if (startsWith(head, read, GZIP_MAGIC)) {
+            return new GZIPInputStream(buffered, BUFFER_SIZE);
+        }
+        return buffered;
+    }
+
+    private static boolean startsWith(byte[] head, int read, byte[] magic) {
+        if (read < magic.length) {
+            return false;
+        }
+        for (int i = 0; i < magic.length; i++) {
+            if (head[i] != magic[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,107 @@
+package com.fuel50.devdb.service;
+
+/**
+ * How rows are laid out in the generated dump.
+ */
+public enum DumpFormat {
+    /** Multi-row INSERT statements replayed statement by statement. */
+    SQL("(", ", ", ")"),
+    /** One tab-separated file per table, loaded with LOAD DATA using its default escaping. */
+    TSV("", "\t", ""),
+    /** One typed, block-indexed snapshot file per table; rows are encoded by {@link BinaryRowCodec}. */
+    BINARY("", "", "");
+
+    private final String rowStart;
+    private final String separator;
+    private final String rowEnd;
+
+    DumpFormat(String rowStart, String separator, String rowEnd) {
+        this.rowStart = rowStart;
+        this.separator = separator;
+        this.rowEnd = rowEnd;
+    }
+
+    public static DumpFormat fromConfig(String value) {
+        if (value == null || value.isEmpty()) {
+            return SQL;
+        }
+        try {
+            return valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown format: " + value + " (expected sql | tsv | binary)");
+        }
+    }
+
+    public String getRowStart() {
+        return rowStart;
+    }
+
+    public String getSeparator() {
+        return separator;
+    }
+
+    public String getRowEnd() {
+        return rowEnd;
+    }
+
+    public String formatValue(Object value) {
+        switch (this) {
+            case SQL:
+                return ColumnTransformPlan.formatValue(value);
+            case TSV:
+                return formatTsvValue(value);
+            default:
+                throw new IllegalStateException(name() + " rows are not formatted as text");
+        }
+    }
+
+    // Matches LOAD DATA's defaults: FIELDS TERMINATED BY '\t' ESCAPED BY '\\' LINES TERMINATED BY '\n'
+    private static String formatTsvValue(Object value) {
+        if (value == null) {
+            return "\\N";
+        }
+
+        if (value instanceof Boolean) {
+            return ((Boolean) value) ? "1" : "0";
+        }
+
+        String text = value.toString();
+        StringBuilder out = null;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            String escape;
+            switch (c) {
+                case '\\':
+                    escape = "\\\\";
+                    break;
+                case '\t':
+                    escape = "\\t";
+                    break;
+                case '\n':
+                    escape = "\\n";
+                    break;
+                case '\r':
+                    escape = "\\r";
+                    break;
+                case '\0':
+                    escape = "\\0";
+                    break;
+                default:
+                    escape = null;
+                    break;
+            }
+            // Most values need no escaping, so the copy is only made on the first escaped character
+            if (escape != null && out == null) {
+                out = new StringBuilder(text.length() + 8).append(text, 0, i);
+            }
+            if (out != null) {
+                if (escape != null) {
+                    out.append(escape);
+                } else {
+                    out.append(c);
+                }
+            }
+        }
+        return out != null ? out.toString() : text;
+    }
+}
@@ -0,0 +1,85 @@
+package com.fuel50.devdb.service;
+
+import java.util.List;
+
+/**
+ * One file of a sharded dump, as listed in manifest.json.
+ */
+public class DumpShard {
+    private String file;
+    private String table;
+    private int part;
+    private int fkLevel;
+    private List<String> references;
+    private long rows;
+    private long bytes;
+    private String sha256;
+
+    /** Path relative to the output directory. */
+    public String getFile() {
+        return file;
+    }
+
+    public void setFile(String file) {
+        this.file = file;
+    }
+
+    /** The table whose rows the file holds; null for the post-load statements. */
+    public String getTable() {
+        return table;
+    }
+
+    public void setTable(String table) {
+        this.table = table;
+    }
+
+    public int getPart() {
+        return part;
+    }
+
+    public void setPart(int part) {
+        this.part = part;
+    }
+
+    /** Files of the same level reference no table of that level or higher, so they can load in parallel. */
+    public int getFkLevel() {
+        return fkLevel;
+    }
+
+    public void setFkLevel(int fkLevel) {
+        this.fkLevel = fkLevel;
+    }
+
+    /** Tables the shard's table references through foreign keys; null in manifests written before the field. */
+    public List<String> getReferences() {
+        return references;
+    }
+
+    public void setReferences(List<String> references) {
+        this.references = references;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public void setRows(long rows) {
+        this.rows = rows;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public void setBytes(long bytes) {
+        this.bytes = bytes;
+    }
+
+    public String getSha256() {
+        return sha256;
+    }
+
+    public void setSha256(String sha256) {
+        this.sha256 = sha256;
+    }
+}
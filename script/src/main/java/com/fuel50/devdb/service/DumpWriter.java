@@ -0,0 +1,36 @@
+package com.fuel50.devdb.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Destination of a generated dump: a SQL script, plus whatever data files the format keeps
+ * next to it. Rows arrive already encoded for the writer's {@link DumpFormat}.
+ */
+public interface DumpWriter extends Closeable {
+
+    /** Appends a line to the SQL script. */
+    void println(String line) throws IOException;
+
+    void println() throws IOException;
+
+    /**
+     * Starts the rows of one table. A non-null {@code upsertClause} asks for rows that
+     * update existing keys instead of failing on them.
+     */
+    void beginTable(String tableName, List<String> columnNames, String upsertClause) throws IOException;
+
+    void writeRow(byte[] row) throws IOException;
+
+    void endTable() throws IOException;
+
+    /** Bytes of dump data written so far, before compression. */
+    long getUncompressedBytes();
+
+    /** Bytes of dump data that reached disk; only final once the writer is closed. */
+    long getCompressedBytes();
+
+    /** Time spent handing buffered data to the compressor and, through it, to disk. */
+    long getStreamNanos();
+}
@@ -0,0 +1,47 @@
+package com.fuel50.devdb.service;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * How large result sets are read from the source database.
+ */
+public enum FetchMode {
+    /** Connector/J default: the whole result set is buffered client-side. */
+    BUFFERED,
+    /** Rows are streamed one at a time; the connection is busy until the result set is closed. */
+    STREAM,
+    /** Server-side cursor read in fetch_size batches; requires useCursorFetch=true on the connection. */
+    CURSOR;
+
+    public static final int DEFAULT_FETCH_SIZE = 1000;
+
+    public static FetchMode fromConfig(String value) {
+        if (value == null || value.isEmpty()) {
+            return BUFFERED;
+        }
+        try {
+            return valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(
+                    "Unknown fetch_mode: " + value + " (expected buffered | stream | cursor)");
+        }
+    }
+
+    public PreparedStatement prepare(Connection conn, String sql, int fetchSize) throws SQLException {
+        PreparedStatement stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        switch (this) {
+            case STREAM:
+                stmt.setFetchSize(Integer.MIN_VALUE);
+                break;
+            case CURSOR:
+                stmt.setFetchSize(fetchSize);
+                break;
+            default:
+                break;
+        }
+        return stmt;
+    }
+}
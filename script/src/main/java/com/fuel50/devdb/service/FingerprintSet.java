@@ -0,0 +1,224 @@
+package com.fuel50.devdb.service;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Set of 64-bit fingerprints for uniqueness checks, with no boxing. Values live in an
+ * open-addressing {@code long[]} table until it reaches the spill threshold; the table is
+ * then sorted into a memory-mapped run file on disk and cleared. Lookups consult the
+ * table and binary-search each run, and runs are merged once there are too many.
+ */
+public class FingerprintSet implements Closeable {
+    public static final int DEFAULT_SPILL_THRESHOLD = 4_000_000;
+
+    private static final int INITIAL_CAPACITY = 1 << 12;
+    private static final int MAX_RUNS = 8;
+
+    private final int spillThreshold;
+    private final List<Run> runs = new ArrayList<>();
+    private long[] table = new long[INITIAL_CAPACITY];
+    private int size;
+    private long total;
+    private boolean closed;
+
+    private static final class Run {
+        final Path file;
+        final LongBuffer values;
+
+        Run(Path file, LongBuffer values) {
+            this.file = file;
+            this.values = values;
+        }
+
+        boolean contains(long value) {
+            int low = 0;
+            int high = values.limit() - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                long current = values.get(middle);
+                if (current < value) {
+                    low = middle + 1;
+                } else if (current > value) {
+                    high = middle - 1;
+                } else {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    public FingerprintSet(int spillThreshold) {
+        this.spillThreshold = Math.max(1, spillThreshold);
+    }
+
+    /** 64-bit FNV-1a over the characters, finished with a splitmix64 step. */
+    public static long fingerprint(CharSequence value) {
+        return fingerprint(value, 0);
+    }
+
+    /** As {@link #fingerprint(CharSequence)}, with the FNV offset basis perturbed by {@code seed}. */
+    public static long fingerprint(CharSequence value, long seed) {
+        long h = 0xcbf29ce484222325L ^ seed;
+        for (int i = 0; i < value.length(); i++) {
+            h = (h ^ value.charAt(i)) * 0x100000001b3L;
+        }
+        h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+        return h ^ (h >>> 31);
+    }
+
+    /** Adds {@code value}, returning false if it was already present. */
+    public boolean add(long value) {
+        if (closed) {
+            throw new IllegalStateException("Fingerprint set is closed");
+        }
+
+        // Zero marks an empty slot in the table
+        if (value == 0) {
+            value = 1;
+        }
+
+        for (Run run : runs) {
+            if (run.contains(value)) {
+                return false;
+            }
+        }
+
+        int mask = table.length - 1;
+        int slot = (int) (value ^ (value >>> 32)) & mask;
+        while (table[slot] != 0) {
+            if (table[slot] == value) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = value;
+        size++;
+        total++;
+
+        if (size >= spillThreshold) {
+            spill();
+        } else if (size * 2 > table.length) {
+            grow();
+        }
+        return true;
+    }
+
+    public long size() {
+        return total;
+    }
+
+    private void grow() {
+        long[] old = table;
+        table = new long[old.length * 2];
+        int mask = table.length - 1;
+        for (long value : old) {
+            if (value != 0) {
+                int slot = (int) (value ^ (value >>> 32)) & mask;
+                while (table[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = value;
+            }
+        }
+    }
+
+    private void spill() {
+        long[] values = new long[size];
+        int n = 0;
+        for (long value : table) {
+            if (value != 0) {
+                values[n++] = value;
+            }
+        }
+        Arrays.sort(values);
+        table = new long[INITIAL_CAPACITY];
+        size = 0;
+
+        try {
+            if (runs.size() + 1 >= MAX_RUNS) {
+                mergeRuns(values);
+            } else {
+                runs.add(writeRun(values));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to spill unique fingerprints", e);
+        }
+    }
+
+    private Run writeRun(long[] values) throws IOException {
+        Path file = Files.createTempFile("devdb-unique-", ".run");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            for (long value : values) {
+                out.writeLong(value);
+            }
+        }
+        return map(file);
+    }
+
+    // Merges every run plus the freshly sorted values into a single run
+    private void mergeRuns(long[] values) throws IOException {
+        Path file = Files.createTempFile("devdb-unique-", ".run");
+        int[] positions = new int[runs.size()];
+        int position = 0;
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            while (true) {
+                int source = -1;
+                long smallest = Long.MAX_VALUE;
+                for (int i = 0; i < runs.size(); i++) {
+                    LongBuffer run = runs.get(i).values;
+                    if (positions[i] < run.limit() && (source == -1 || run.get(positions[i]) < smallest)) {
+                        smallest = run.get(positions[i]);
+                        source = i;
+                    }
+                }
+                if (position < values.length && (source == -1 || values[position] < smallest)) {
+                    out.writeLong(values[position++]);
+                } else if (source != -1) {
+                    out.writeLong(smallest);
+                    positions[source]++;
+                } else {
+                    break;
+                }
+            }
+        }
+
+        deleteRuns();
+        runs.add(map(file));
+    }
+
+    private Run map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new Run(file, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).asLongBuffer());
+        }
+    }
+
+    private void deleteRuns() throws IOException {
+        for (Run run : runs) {
+            Files.deleteIfExists(run.file);
+        }
+        runs.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        table = new long[0];
+        size = 0;
+        deleteRuns();
+    }
+}
@@ -0,0 +1,277 @@
+package com.fuel50.devdb.service;
+
+import com.fuel50.devdb.model.TableSpec;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Expands the selected ids across the foreign key graph until nothing changes.
+ *
+ * Each iteration only looks at the ids added in the previous one (the frontier):
+ * <ul>
+ * <li>upwards, parents referenced by frontier child rows are added while the parent is
+ * under its max_rows budget. Child rows referencing a parent that no longer fits are
+ * dropped, along with any selected rows that reference them, so the result never points
+ * at a row outside it;</li>
+ * <li>downwards, children of frontier parents are added to fk_closure tables while they
+ * are under their max_rows budget.</li>
+ * </ul>
+ */
+public class ForeignKeyClosure {
+
+    private static class Edge {
+        final String child;
+        final String column;
+        final String parent;
+
+        Edge(String child, String column, String parent) {
+            this.child = child;
+            this.column = column;
+            this.parent = parent;
+        }
+    }
+
+    private final Map<String, TableSpec> tables;
+    private final Connection conn;
+    private final int chunkSize;
+    private final Function<TableSpec, Integer> maxRowsResolver;
+    private final List<Edge> edges = new ArrayList<>();
+
+    public ForeignKeyClosure(Map<String, TableSpec> tables, Connection conn, int chunkSize,
+            Function<TableSpec, Integer> maxRowsResolver) {
+        this.tables = tables;
+        this.conn = conn;
+        this.chunkSize = chunkSize;
+        this.maxRowsResolver = maxRowsResolver;
+
+        for (TableSpec table : tables.values()) {
+            if (table.getFk() == null || table.getFk().getReferences() == null) {
+                continue;
+            }
+            for (TableSpec.ForeignKeyReference fkRef : table.getFk().getReferences()) {
+                if (!tables.containsKey(fkRef.getTable())) {
+                    continue;
+                }
+                // Selected ids are primary keys, so only references to the parent's id can be followed
+                if (fkRef.getColumnRef() != null && !"id".equals(fkRef.getColumnRef())) {
+                    System.out.println("   ⚠️  Skipping " + table.getName() + "." + fkRef.getColumn()
+                            + " -> " + fkRef.getTable() + "." + fkRef.getColumnRef() + " (not an id reference)");
+                    continue;
+                }
+                edges.add(new Edge(table.getName(), fkRef.getColumn(), fkRef.getTable()));
+            }
+        }
+    }
+
+    /**
+     * Runs the closure over the initial selection.
+     *
+     * @return the expanded, frozen id sets for every table
+     */
+    public Map<String, IdSet> expand(Map<String, IdSet> initial) throws SQLException {
+        Map<String, IdSet> selected = new HashMap<>();
+        Map<String, IdSet> frontier = new HashMap<>();
+
+        for (String tableName : tables.keySet()) {
+            IdSet ids = IdSet.create();
+            IdSet initialIds = initial.get(tableName);
+            if (initialIds != null) {
+                ids.addAll(initialIds);
+            }
+            selected.put(tableName, ids);
+            frontier.put(tableName, ids);
+        }
+
+        BatchedIdLookup lookup = new BatchedIdLookup(conn, chunkSize);
+        Map<String, Long> droppedTotals = new TreeMap<>();
+        int iteration = 0;
+
+        while (hasWork(frontier)) {
+            iteration++;
+
+            // Upwards first, so children of rows about to be dropped are never fetched
+            Map<String, IdSet> referenced = new HashMap<>();
+            for (Edge edge : edges) {
+                IdSet childFrontier = frontier.get(edge.child);
+                if (!childFrontier.isEmpty()) {
+                    followUp(lookup, edge, childFrontier, selected.get(edge.parent), referenced);
+                }
+            }
+
+            Map<String, IdSet> discovered = new HashMap<>();
+            Map<String, IdSet> rejected = new HashMap<>();
+            for (Map.Entry<String, IdSet> entry : referenced.entrySet()) {
+                IdSet parents = entry.getValue();
+                Integer maxRows = maxRowsResolver.apply(tables.get(entry.getKey()));
+                int budget = maxRows == null ? Integer.MAX_VALUE
+                        : Math.max(0, maxRows - selected.get(entry.getKey()).size());
+                if (parents.size() <= budget) {
+                    discovered.put(entry.getKey(), parents);
+                } else {
+                    // Slices are frozen, and followDown may still add children of this table below
+                    IdSet kept = IdSet.create();
+                    kept.addAll(parents.slice(0, budget));
+                    discovered.put(entry.getKey(), kept);
+                    rejected.put(entry.getKey(), parents.slice(budget, parents.size()));
+                }
+            }
+
+            if (!rejected.isEmpty()) {
+                Map<String, IdSet> dropped = findDangling(lookup, frontier, rejected);
+                cascadeDrops(lookup, selected, dropped);
+                for (Map.Entry<String, IdSet> entry : dropped.entrySet()) {
+                    String tableName = entry.getKey();
+                    selected.put(tableName, IdSet.difference(selected.get(tableName), entry.getValue()));
+                    frontier.put(tableName, IdSet.difference(frontier.get(tableName), entry.getValue()));
+                    droppedTotals.merge(tableName, (long) entry.getValue().size(), Long::sum);
+                }
+            }
+
+            Map<String, Integer> discoveredCounts = new HashMap<>();
+            for (Map.Entry<String, IdSet> entry : discovered.entrySet()) {
+                discoveredCounts.put(entry.getKey(), entry.getValue().size());
+            }
+            for (Edge edge : edges) {
+                // The initial fk_closure pass already fetched children of the starting parents
+                IdSet parentFrontier = frontier.get(edge.parent);
+                if (iteration > 1 && !parentFrontier.isEmpty() && isClosureTable(edge.child)) {
+                    followDown(lookup, edge, parentFrontier, selected.get(edge.child), discovered, discoveredCounts);
+                }
+            }
+
+            frontier = new HashMap<>();
+            long added = 0;
+            for (String tableName : tables.keySet()) {
+                IdSet newIds = discovered.getOrDefault(tableName, IdSet.create());
+                selected.get(tableName).addAll(newIds);
+                frontier.put(tableName, newIds);
+                added += newIds.size();
+            }
+
+            System.out.println("   Closure iteration " + iteration + ": +" + added + " rows");
+        }
+
+        for (Map.Entry<String, Long> entry : droppedTotals.entrySet()) {
+            System.out.println("   ⚠️  Dropped " + entry.getValue() + " rows of " + entry.getKey()
+                    + " to keep the tables they reference within max_rows");
+        }
+        for (IdSet ids : selected.values()) {
+            ids.freeze();
+        }
+
+        return selected;
+    }
+
+    private void followUp(BatchedIdLookup lookup, Edge edge, IdSet childFrontier, IdSet parentSelected,
+            Map<String, IdSet> referenced) throws SQLException {
+        IdSet parentNew = referenced.computeIfAbsent(edge.parent, k -> IdSet.create());
+
+        lookup.forEachRow("SELECT DISTINCT " + edge.column + " FROM " + edge.child + " WHERE id", "",
+                childFrontier, rs -> {
+                    long parentId = rs.getLong(1);
+                    if (!rs.wasNull() && !parentSelected.contains(parentId)) {
+                        parentNew.add(parentId);
+                    }
+                    return true;
+                });
+    }
+
+    // Frontier rows whose reference points at a parent that was left out
+    private Map<String, IdSet> findDangling(BatchedIdLookup lookup, Map<String, IdSet> frontier,
+            Map<String, IdSet> rejected) throws SQLException {
+        Map<String, IdSet> dropped = new HashMap<>();
+        for (Edge edge : edges) {
+            IdSet rejectedParents = rejected.get(edge.parent);
+            IdSet childFrontier = frontier.get(edge.child);
+            if (rejectedParents == null || childFrontier.isEmpty()) {
+                continue;
+            }
+            IdSet childDropped = dropped.computeIfAbsent(edge.child, k -> IdSet.create());
+            lookup.forEachRow("SELECT id, " + edge.column + " FROM " + edge.child + " WHERE id", "", childFrontier,
+                    rs -> {
+                        long parentId = rs.getLong(2);
+                        if (!rs.wasNull() && rejectedParents.contains(parentId)) {
+                            childDropped.add(rs.getLong(1));
+                        }
+                        return true;
+                    });
+        }
+        return dropped;
+    }
+
+    // Selected rows referencing a dropped row would dangle too, so they follow it out
+    private void cascadeDrops(BatchedIdLookup lookup, Map<String, IdSet> selected, Map<String, IdSet> dropped)
+            throws SQLException {
+        Map<String, IdSet> pending = dropped;
+        while (!pending.isEmpty()) {
+            Map<String, IdSet> next = new HashMap<>();
+            for (Edge edge : edges) {
+                IdSet parentDropped = pending.get(edge.parent);
+                if (parentDropped == null || parentDropped.isEmpty()) {
+                    continue;
+                }
+                IdSet childSelected = selected.get(edge.child);
+                IdSet childNext = next.computeIfAbsent(edge.child, k -> IdSet.create());
+                lookup.forEachRow("SELECT id FROM " + edge.child + " WHERE " + edge.column, "", parentDropped,
+                        rs -> {
+                            long childId = rs.getLong(1);
+                            if (childSelected.contains(childId)) {
+                                childNext.add(childId);
+                            }
+                            return true;
+                        });
+            }
+
+            pending = new HashMap<>();
+            for (Map.Entry<String, IdSet> entry : next.entrySet()) {
+                IdSet known = dropped.computeIfAbsent(entry.getKey(), k -> IdSet.create());
+                IdSet added = IdSet.difference(entry.getValue(), known);
+                if (!added.isEmpty()) {
+                    known.addAll(added);
+                    pending.put(entry.getKey(), added);
+                }
+            }
+        }
+    }
+
+    private void followDown(BatchedIdLookup lookup, Edge edge, IdSet parentFrontier, IdSet childSelected,
+            Map<String, IdSet> discovered, Map<String, Integer> discoveredCounts) throws SQLException {
+        Integer maxRows = maxRowsResolver.apply(tables.get(edge.child));
+        // Counts may include ids found through several edges, which only makes the budget stricter
+        int remaining = maxRows == null
+                ? Integer.MAX_VALUE
+                : maxRows - childSelected.size() - discoveredCounts.getOrDefault(edge.child, 0);
+        if (remaining <= 0) {
+            return;
+        }
+
+        IdSet childNew = discovered.computeIfAbsent(edge.child, k -> IdSet.create());
+        int[] budget = { remaining };
+
+        lookup.forEachRow("SELECT id FROM " + edge.child + " WHERE " + edge.column, "", parentFrontier, rs -> {
+            long childId = rs.getLong(1);
+            if (!childSelected.contains(childId)) {
+                childNew.add(childId);
+                discoveredCounts.merge(edge.child, 1, Integer::sum);
+                budget[0]--;
+            }
+            return budget[0] > 0;
+        });
+    }
+
+    private boolean isClosureTable(String tableName) {
+        TableSpec table = tables.get(tableName);
+        return table.getSubset() != null && "fk_closure".equals(table.getSubset().getStrategy());
+    }
+
+    private static boolean hasWork(Map<String, IdSet> frontier) {
+        for (IdSet ids : frontier.values()) {
+            if (!ids.isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,63 @@
+package com.fuel50.devdb.service;
+
+import java.util.function.LongConsumer;
+
+/**
+ * Set of primary key values selected for a table.
+ * Implementations store ids as primitives so large selections stay compact on the heap.
+ */
+public interface IdSet {
+
+    void add(long id);
+
+    void addAll(IdSet other);
+
+    boolean contains(long id);
+
+    int size();
+
+    default boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /** Returns the id at the given position in ascending order. */
+    long get(int index);
+
+    /** Returns the ids at sorted positions {@code [fromIndex, toIndex)} as a new frozen set. */
+    IdSet slice(int fromIndex, int toIndex);
+
+    /** Visits every id in ascending order. */
+    void forEach(LongConsumer action);
+
+    /**
+     * Makes the set read-only. A frozen set performs no internal writes on reads,
+     * so it can be shared between threads once published.
+     */
+    IdSet freeze();
+
+    static IdSet create() {
+        return new SortedLongIdSet();
+    }
+
+    /** Returns the ids of {@code a} that are also in {@code b}. */
+    static IdSet intersection(IdSet a, IdSet b) {
+        IdSet result = create();
+        a.forEach(id -> {
+            if (b.contains(id)) {
+                result.add(id);
+            }
+        });
+        return result;
+    }
+
+    /** Returns the ids of {@code a} that are not in {@code b}. */
+    static IdSet difference(IdSet a, IdSet b) {
+        IdSet result = create();
+        a.forEach(id -> {
+            if (!b.contains(id)) {
+                result.add(id);
+            }
+        });
+        return result;
+    }
+}
@@ -0,0 +1,138 @@
+package com.fuel50.devdb.service;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Reads the rows of a table whose ids are in an {@link IdSet}, walking the sorted ids in
+ * pages so that only one page of rows is in flight at a time.
+ *
+ * Dense pages are read as a clustered primary key range ({@code id >= ? AND id <= ?})
+ * and intersected with the id set; sparse pages fall back to a bound {@code IN} list so
+ * unselected rows between distant ids are never scanned.
+ */
+public class KeysetPageReader {
+    public static final int DEFAULT_PAGE_SIZE = 1000;
+
+    // A page is read as a range when it spans at most this many ids per selected id
+    private static final int MAX_RANGE_SPAN_FACTOR = 4;
+
+    private final Connection conn;
+    private final int pageSize;
+
+    public KeysetPageReader(Connection conn, int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive: " + pageSize);
+        }
+        this.conn = conn;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Streams the selected rows in id order through the handler, calling {@code afterPage}
+     * once each page has been fully handled.
+     *
+     * @return the number of rows handed to the handler
+     */
+    public long forEachRow(String tableName, IdSet ids, BatchedIdLookup.RowHandler handler, Runnable afterPage)
+            throws SQLException {
+        return forEachRow(tableName, null, List.of(), ids, handler, afterPage);
+    }
+
+    /**
+     * Same as {@link #forEachRow(String, IdSet, BatchedIdLookup.RowHandler, Runnable)}, only
+     * returning rows that also match the extra SQL condition (when not null). The condition's
+     * {@code ?} placeholders are bound to {@code parameters} in order.
+     */
+    public long forEachRow(String tableName, String condition, List<?> parameters, IdSet ids,
+            BatchedIdLookup.RowHandler handler, Runnable afterPage) throws SQLException {
+        int total = ids.size();
+        if (total == 0) {
+            return 0;
+        }
+
+        String select = "SELECT * FROM " + tableName + " WHERE "
+                + (condition != null ? "(" + condition + ") AND " : "");
+        long[] rows = new long[1];
+        boolean proceed = true;
+
+        try (PreparedStatement rangeStmt = conn.prepareStatement(select + "id >= ? AND id <= ? ORDER BY id");
+                PreparedStatement pageStmt = conn.prepareStatement(
+                        select + "id IN (" + placeholders(Math.min(pageSize, total)) + ") ORDER BY id")) {
+
+            for (int offset = 0; offset < total && proceed; offset += pageSize) {
+                int length = Math.min(pageSize, total - offset);
+                long first = ids.get(offset);
+                long last = ids.get(offset + length - 1);
+
+                if (last - first < (long) length * MAX_RANGE_SPAN_FACTOR) {
+                    bindParameters(rangeStmt, parameters);
+                    rangeStmt.setLong(parameters.size() + 1, first);
+                    rangeStmt.setLong(parameters.size() + 2, last);
+                    proceed = readPage(rangeStmt, ids, handler, true, rows);
+                } else if (length == pageSize || offset == 0) {
+                    bindParameters(pageStmt, parameters);
+                    bindPage(pageStmt, parameters.size(), ids, offset, length);
+                    proceed = readPage(pageStmt, ids, handler, false, rows);
+                } else {
+                    // Trailing partial page needs its own placeholder count
+                    try (PreparedStatement tailStmt = conn.prepareStatement(
+                            select + "id IN (" + placeholders(length) + ") ORDER BY id")) {
+                        bindParameters(tailStmt, parameters);
+                        bindPage(tailStmt, parameters.size(), ids, offset, length);
+                        proceed = readPage(tailStmt, ids, handler, false, rows);
+                    }
+                }
+
+                afterPage.run();
+            }
+        }
+
+        return rows[0];
+    }
+
+    // Returns false when the handler asked to stop
+    private boolean readPage(PreparedStatement stmt, IdSet ids, BatchedIdLookup.RowHandler handler, boolean filter,
+            long[] rows) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                // Range reads also return unselected rows in the gaps between selected ids
+                if (filter && !ids.contains(rs.getLong("id"))) {
+                    continue;
+                }
+                rows[0]++;
+                if (!handler.onRow(rs)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    static void bindParameters(PreparedStatement stmt, List<?> parameters) throws SQLException {
+        for (int i = 0; i < parameters.size(); i++) {
+            stmt.setObject(i + 1, parameters.get(i));
+        }
+    }
+
+    private void bindPage(PreparedStatement stmt, int firstIndex, IdSet ids, int offset, int length)
+            throws SQLException {
+        for (int i = 0; i < length; i++) {
+            stmt.setLong(firstIndex + i + 1, ids.get(offset + i));
+        }
+    }
+
+    private static String placeholders(int count) {
+        StringBuilder sql = new StringBuilder(count * 3);
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append('?');
+        }
+        return sql.toString();
+    }
+}
@@ -1,7 +1,8 @@
 package com.fuel50.devdb.service;
 
-import com.fuel50.devdb.model.ColumnSpec;
+import com.fuel50.devdb.masking.TransformRegistry;
 import com.fuel50.devdb.model.DatabaseSpec;
+import com.fuel50.devdb.model.SchemaMetadata;
 import com.fuel50.devdb.model.TableSpec;
 import java.io.*;
 import java.nio.file.Files;
@@ -9,35 +10,206 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.sql.*;
 import java.util.*;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 import java.util.Date;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class LightweightGenerator {
+    private static final int DEFAULT_TEMP_TABLE_THRESHOLD = 50000;
+    private static final String DUMP_FILE = "lightweight-dump.sql";
+    private static final String DELTA_FILE = "lightweight-delta.sql";
+    private static final String LOAD_FILE = "lightweight-load.sql";
+    private static final String SNAPSHOT_FILE = "lightweight-snapshot.sql";
+    private static final String SHARD_DIR = "lightweight-dump";
+    private static final String DELTA_SHARD_DIR = "lightweight-delta";
+
     private final DatabaseSpec spec;
     private final Connection sourceConn;
-    private final Map<String, Set<Long>> selectedIds = new HashMap<>();
+    private final ConnectionFactory connectionFactory;
+    private final int parallelism;
+    private final Map<String, IdSet> selectedIds = new ConcurrentHashMap<>();
+    private final Map<String, TableReport> reports = new ConcurrentHashMap<>();
+    private SchemaMetadata metadata;
+    private List<String> dependencyOrder;
+    private boolean incremental;
+    private DumpCompression compression = DumpCompression.NONE;
+    private DumpFormat format = DumpFormat.SQL;
+    private boolean sharded;
+    private String dumpFileName;
+    private long dumpBytes;
+    private long dumpFileBytes;
+    private long dumpStreamNanos;
+    private long dumpNanos;
+    private List<DumpShard> shards;
+    private WatermarkStore watermarkStore;
+    private Map<String, WatermarkStore.TableWatermark> previousWatermarks;
+    private final Map<String, WatermarkStore.TableWatermark> watermarks = new ConcurrentHashMap<>();
+    private final int chunkSize;
+    private final FetchMode fetchMode;
+    private final int fetchSize;
+    private final int pageSize;
+    private final ColumnTransformPlanner planner;
+    private final Map<String, ColumnTransformPlan> plans = new HashMap<>();
+    private final int batchSize;
+    private final int poolSize;
+    private final int maxStatementBytes;
+    private final int maxStatementRows;
+    private final long maxFileBytes;
+    private ForkJoinPool transformPool;
+    private MaskingDictionary dictionary;
 
     public LightweightGenerator(DatabaseSpec spec, Connection sourceConn) {
+        this(spec, sourceConn, null, 1);
+    }
+
+    public LightweightGenerator(DatabaseSpec spec, Connection sourceConn, ConnectionFactory connectionFactory,
+            int parallelism) {
         this.spec = spec;
         this.sourceConn = sourceConn;
+        this.connectionFactory = connectionFactory;
+        this.parallelism = parallelism;
+        this.chunkSize = resolveChunkSize();
+
+        DatabaseSpec.ExtractionDefaults extraction = spec.getDefaults() != null
+                ? spec.getDefaults().getExtraction()
+                : null;
+        this.fetchMode = FetchMode.fromConfig(extraction != null ? extraction.getFetchMode() : null);
+        this.fetchSize = extraction != null && extraction.getFetchSize() != null
+                ? extraction.getFetchSize()
+                : FetchMode.DEFAULT_FETCH_SIZE;
+        this.pageSize = extraction != null && extraction.getPageSize() != null
+                ? extraction.getPageSize()
+                : KeysetPageReader.DEFAULT_PAGE_SIZE;
+
+        // Secret columns always hash with SHA-256; the faster keyed hash is opt-in for the rest
+        DatabaseSpec.MaskingDefaults masking = spec.getDefaults() != null ? spec.getDefaults().getMasking() : null;
+        String salt = masking != null ? masking.getDeterministicSalt() : null;
+        DeterministicHasher secretHasher = new DeterministicHasher(DeterministicHasher.Algorithm.SHA256, salt);
+        DeterministicHasher.Algorithm algorithm =
+                DeterministicHasher.Algorithm.fromConfig(masking != null ? masking.getHashAlgorithm() : null);
+        DeterministicHasher hasher = algorithm == DeterministicHasher.Algorithm.SHA256
+                ? secretHasher
+                : new DeterministicHasher(algorithm, salt);
+        this.planner = new ColumnTransformPlanner(TransformRegistry.load(), masking, hasher, secretHasher);
+        this.batchSize = masking != null && masking.getBatchSize() != null
+                ? masking.getBatchSize()
+                : BatchTransformer.DEFAULT_BATCH_SIZE;
+        this.poolSize = masking != null && masking.getPoolSize() != null
+                ? masking.getPoolSize()
+                : Runtime.getRuntime().availableProcessors();
+
+        DatabaseSpec.OutputDefaults output = spec.getDefaults() != null ? spec.getDefaults().getOutput() : null;
+        this.maxStatementBytes = output != null && output.getMaxStatementBytes() != null
+                ? output.getMaxStatementBytes()
+                : SqlDumpWriter.DEFAULT_MAX_STATEMENT_BYTES;
+        this.maxStatementRows = output != null && output.getMaxStatementRows() != null
+                ? output.getMaxStatementRows()
+                : SqlDumpWriter.DEFAULT_MAX_STATEMENT_ROWS;
+        this.maxFileBytes = output != null && output.getMaxFileBytes() != null ? output.getMaxFileBytes() : 0;
+    }
+
+    private int resolveChunkSize() {
+        if (spec.getDefaults() != null && spec.getDefaults().getExtraction() != null
+                && spec.getDefaults().getExtraction().getChunkSize() != null) {
+            return spec.getDefaults().getExtraction().getChunkSize();
+        }
+        return BatchedIdLookup.DEFAULT_CHUNK_SIZE;
+    }
+
+    /**
+     * When enabled and watermarks from a previous run exist, only rows that changed since
+     * that run (or were newly selected) are extracted into an upsert delta dump.
+     */
+    public void setIncremental(boolean incremental) {
+        this.incremental = incremental;
+    }
+
+    /** Compresses the dump as it is written; the restorer detects the format on its own. */
+    public void setCompression(DumpCompression compression) {
+        this.compression = compression;
+    }
+
+    /**
+     * TSV writes a LOAD DATA file per table and BINARY a typed snapshot per table, each with a
+     * control script, instead of INSERTs; neither can hold upsert deltas, see {@link #validateOptions}.
+     */
+    public void setFormat(DumpFormat format) {
+        this.format = format;
+    }
+
+    /** Rejects option combinations the dump writers cannot honour, before anything is read. */
+    public static void validateOptions(boolean incremental, DumpFormat format) {
+        if (incremental && format != DumpFormat.SQL) {
+            String name = format.name().toLowerCase();
+            throw new IllegalArgumentException("--incremental writes upsert deltas, which " + name + " dumps cannot"
+                    + " express; use --incremental with --format sql, or drop --incremental for --format " + name);
+        }
+    }
+
+    /**
+     * Writes a SQL dump as one file per table (split further past max_file_bytes), with tables
+     * written concurrently on their own connections and every file checksummed in the manifest.
+     */
+    public void setSharded(boolean sharded) {
+        this.sharded = sharded;
     }
 
     public void generate(String outputDir) throws Exception {
         System.out.println("🔄 Starting lightweight database generation...");
+        validateOptions(incremental, format);
 
         // Create output directory
         Path outputPath = Paths.get(outputDir);
         Files.createDirectories(outputPath);
 
-        // Step 1: Analyze and select data
-        System.out.println("📊 Step 1: Analyzing and selecting data...");
-        selectData();
+        // Step 0: Load schema metadata
+        System.out.println("🔎 Step 0: Loading schema metadata...");
+        loadMetadata(outputPath);
+
+        watermarkStore = new WatermarkStore(outputPath);
+        if (incremental) {
+            if (watermarkStore.exists()) {
+                previousWatermarks = watermarkStore.load();
+                System.out.println("   Incremental run against watermarks in " + WatermarkStore.WATERMARK_FILE);
+            } else {
+                System.out.println("   No previous watermarks found, generating a full dump");
+            }
+        }
+        if (format == DumpFormat.BINARY && compression != DumpCompression.NONE) {
+            System.out.println("⚠️  Warning: Binary snapshots are memory-mapped on restore, "
+                    + "writing them uncompressed");
+            compression = DumpCompression.NONE;
+        }
+        if (sharded && format != DumpFormat.SQL) {
+            System.out.println("⚠️  Warning: " + format.name().toLowerCase()
+                    + " dumps are already written per table, ignoring --sharded");
+            sharded = false;
+        }
 
-        // Step 2: Generate SQL dump
-        System.out.println("📝 Step 2: Generating SQL dump...");
-        generateSqlDump(outputPath);
+        // Closing marks the dictionary clean, so it must close whichever later step fails
+        openDictionary(outputPath);
+        try {
+            planner.setFormat(format);
+            compileTransformPlans();
+
+            // Step 1: Analyze and select data
+            System.out.println("📊 Step 1: Analyzing and selecting data...");
+            selectData();
+
+            // Step 2: Generate SQL dump
+            System.out.println("📝 Step 2: Generating SQL dump...");
+            generateSqlDump(outputPath);
+        } finally {
+            if (dictionary != null) {
+                dictionary.close();
+            }
+        }
 
         // Step 3: Generate manifest
         System.out.println("📋 Step 3: Generating manifest...");
@@ -46,19 +218,97 @@ public class LightweightGenerator {
         System.out.println("✅ Generation complete!");
     }
 
-    private void selectData() throws SQLException {
-        List<Map.Entry<String, TableSpec>> sortedTables = spec.getTables().entrySet()
+    private List<Map.Entry<String, TableSpec>> sortedTables() {
+        // Explicit processing_order wins; otherwise parents come before the tables referencing them
+        return spec.getTables().entrySet()
                 .stream()
-                .sorted((e1, e2) -> {
-                    Integer order1 = e1.getValue().getProcessingOrder();
-                    Integer order2 = e2.getValue().getProcessingOrder();
-                    if (order1 == null)
-                        order1 = 999;
-                    if (order2 == null)
-                        order2 = 999;
-                    return order1.compareTo(order2);
-                })
+                .sorted(Comparator.comparing((Map.Entry<String, TableSpec> e) -> {
+                    Integer order = e.getValue().getProcessingOrder();
+                    return order != null ? order : 999;
+                }).thenComparing(e -> dependencyOrder.indexOf(e.getKey())))
                 .collect(Collectors.toList());
+    }
+
+    private void loadMetadata(Path outputPath) throws SQLException, IOException {
+        metadata = new SchemaIntrospector(sourceConn).load(outputPath);
+
+        // Tables without hand-written fk references pick them up from the schema
+        for (TableSpec table : spec.getTables().values()) {
+            SchemaMetadata.TableMetadata tableMetadata = metadata.getTables().get(table.getName());
+            if (tableMetadata == null || (table.getFk() != null && table.getFk().getReferences() != null)) {
+                continue;
+            }
+
+            List<TableSpec.ForeignKeyReference> references = new ArrayList<>();
+            for (SchemaMetadata.ForeignKeyMetadata fk : tableMetadata.getForeignKeys()) {
+                if (spec.getTables().containsKey(fk.getReferencedTable())) {
+                    TableSpec.ForeignKeyReference ref = new TableSpec.ForeignKeyReference();
+                    ref.setColumn(fk.getColumn());
+                    ref.setTable(fk.getReferencedTable());
+                    ref.setColumnRef(fk.getReferencedColumn());
+                    references.add(ref);
+                }
+            }
+
+            if (!references.isEmpty()) {
+                TableSpec.ForeignKeySpec fkSpec = new TableSpec.ForeignKeySpec();
+                fkSpec.setReferences(references);
+                table.setFk(fkSpec);
+            }
+        }
+
+        dependencyOrder = topologicalOrder();
+    }
+
+    private List<String> topologicalOrder() {
+        return new ArrayList<>(foreignKeyLevels().keySet());
+    }
+
+    /**
+     * Assigns each table one more than the highest level of the tables it references, in
+     * dependency order; tables of one level never reference each other.
+     */
+    private Map<String, Integer> foreignKeyLevels() {
+        Set<String> remaining = new TreeSet<>(spec.getTables().keySet());
+        Map<String, Integer> levels = new LinkedHashMap<>();
+
+        for (int level = 0; !remaining.isEmpty(); level++) {
+            List<String> ready = new ArrayList<>();
+            for (String tableName : remaining) {
+                TableSpec table = spec.getTables().get(tableName);
+                boolean blocked = false;
+                if (table.getFk() != null && table.getFk().getReferences() != null) {
+                    for (TableSpec.ForeignKeyReference fkRef : table.getFk().getReferences()) {
+                        if (!tableName.equals(fkRef.getTable()) && remaining.contains(fkRef.getTable())) {
+                            blocked = true;
+                            break;
+                        }
+                    }
+                }
+                if (!blocked) {
+                    ready.add(tableName);
+                }
+            }
+
+            // Reference cycles keep name order
+            if (ready.isEmpty()) {
+                for (String tableName : remaining) {
+                    levels.put(tableName, level);
+                }
+                break;
+            }
+
+            for (String tableName : ready) {
+                levels.put(tableName, level);
+            }
+            remaining.removeAll(ready);
+        }
+
+        return levels;
+    }
+
+    private void selectData() throws SQLException {
+        List<Map.Entry<String, TableSpec>> sortedTables = sortedTables();
 
         // First, identify root tables
         List<String> rootTables = new ArrayList<>();
@@ -71,22 +321,58 @@ public class LightweightGenerator {
 
         System.out.println("   Root tables: " + rootTables);
 
-        // Process root tables first
-        for (String tableName : rootTables) {
-            selectTableData(tableName);
-        }
+        if (parallelism > 1 && connectionFactory != null) {
+            System.out.println("   Selecting tables with " + parallelism + " workers");
 
-        // Process dependent tables
-        for (Map.Entry<String, TableSpec> entry : sortedTables) {
-            String tableName = entry.getKey();
+            List<String> orderedTables = new ArrayList<>(rootTables);
+            for (Map.Entry<String, TableSpec> entry : sortedTables) {
+                if (!rootTables.contains(entry.getKey())) {
+                    orderedTables.add(entry.getKey());
+                }
+            }
+
+            new SelectionScheduler(spec.getTables(), orderedTables, connectionFactory, parallelism)
+                    .run(this::selectTableData);
+        } else {
+            // Process root tables first
+            for (String tableName : rootTables) {
+                selectTableData(tableName, sourceConn);
+            }
+
+            // Process dependent tables
+            for (Map.Entry<String, TableSpec> entry : sortedTables) {
+                String tableName = entry.getKey();
 
-            if (!rootTables.contains(tableName)) {
-                selectTableData(tableName);
+                if (!rootTables.contains(tableName)) {
+                    selectTableData(tableName, sourceConn);
+                }
             }
         }
+
+        // Close the selection over foreign keys in both directions
+        if (isFixpointClosure()) {
+            System.out.println("   Expanding foreign key closure...");
+            ForeignKeyClosure closure = new ForeignKeyClosure(spec.getTables(), sourceConn, chunkSize,
+                    this::resolveMaxRows);
+            selectedIds.putAll(closure.expand(selectedIds));
+        }
     }
 
-    private void selectTableData(String tableName) throws SQLException {
+    private boolean isFixpointClosure() {
+        String closure = spec.getDefaults() != null && spec.getDefaults().getSubset() != null
+                ? spec.getDefaults().getSubset().getClosure()
+                : null;
+        // One hop from child to parent stays the default, so existing specs keep their selection
+        if (closure == null || "one_hop".equals(closure)) {
+            return false;
+        }
+        if ("fixpoint".equals(closure)) {
+            return true;
+        }
+        throw new IllegalArgumentException("Unknown closure mode: " + closure + " (expected one_hop | fixpoint)");
+    }
+
+    private void selectTableData(String tableName, Connection conn) throws SQLException {
         TableSpec table = spec.getTables().get(tableName);
         if (table == null || table.getSubset() == null) {
             return;
@@ -95,30 +381,52 @@ public class LightweightGenerator {
         System.out.println("   Processing table: " + tableName);
 
         String strategy = table.getSubset().getStrategy();
-        Set<Long> ids = new HashSet<>();
+        IdSet ids = IdSet.create();
 
         if ("sample".equals(strategy)) {
-            ids = sampleTable(tableName, table);
+            ids = sampleTable(conn, tableName, table);
         } else if ("fk_closure".equals(strategy)) {
-            ids = selectByForeignKeyClosure(tableName, table);
+            ids = selectByForeignKeyClosure(conn, tableName, table);
         } else if ("all".equals(strategy)) {
-            ids = selectAll(tableName);
+            ids = selectAll(conn, tableName);
+        } else if ("random".equals(strategy)) {
+            ids = sampleRandom(conn, tableName, table);
         }
 
-        selectedIds.put(tableName, ids);
-        System.out.println("     Selected " + ids.size() + " rows");
+        // Freeze before publishing so dependent tables on other workers can read it safely
+        selectedIds.put(tableName, ids.freeze());
+        System.out.println("     Selected " + ids.size() + " rows from " + tableName);
     }
 
-    private Set<Long> sampleTable(String tableName, TableSpec table) throws SQLException {
-        Set<Long> ids = new HashSet<>();
+    private IdSet sampleTable(Connection conn, String tableName, TableSpec table) throws SQLException {
+        IdSet ids = IdSet.create();
 
         StringBuilder query = new StringBuilder("SELECT id FROM " + tableName);
 
         // Add time window filter if specified
-        if (table.getSubset().getTimeWindowDays() != null) {
-            query.append(" WHERE created_at >= DATE_SUB(NOW(), INTERVAL ")
-                    .append(table.getSubset().getTimeWindowDays())
-                    .append(" DAY)");
+        Integer windowDays = table.getSubset().getTimeWindowDays();
+        if (windowDays != null) {
+            String mode = table.getSubset().getTimeWindowMode();
+
+            if ("pk_range".equals(mode)) {
+                // Rewrite the window as a clustered id range found by binary search on the PK
+                Long minId = new TimeWindowResolver(conn).findFirstIdSince(tableName, windowDays);
+                report(tableName).setTimeWindowPlan("pk_range");
+                report(tableName).setTimeWindowMinId(minId);
+
+                if (minId == null) {
+                    return ids;
+                }
+                query.append(" WHERE id >= ").append(minId);
+            } else if (mode == null || "created_at".equals(mode)) {
+                report(tableName).setTimeWindowPlan("created_at");
+                query.append(" WHERE created_at >= DATE_SUB(NOW(), INTERVAL ")
+                        .append(windowDays)
+                        .append(" DAY)");
+            } else {
+                throw new IllegalArgumentException("Unknown time_window_mode for table " + tableName + ": " + mode
+                        + " (expected created_at | pk_range)");
+            }
         }
 
         // Add ordering
@@ -127,16 +435,12 @@ public class LightweightGenerator {
         }
 
         // Add limit
-        Integer maxRows = table.getSubset().getMaxRows();
-        if (maxRows == null && spec.getDefaults() != null && spec.getDefaults().getSubset() != null) {
-            maxRows = spec.getDefaults().getSubset().getMaxRows();
-        }
-
+        Integer maxRows = resolveMaxRows(table);
         if (maxRows != null) {
             query.append(" LIMIT ").append(maxRows);
         }
 
-        try (PreparedStatement stmt = sourceConn.prepareStatement(query.toString());
+        try (PreparedStatement stmt = conn.prepareStatement(query.toString());
                 ResultSet rs = stmt.executeQuery()) {
 
             while (rs.next()) {
@@ -147,8 +451,37 @@ public class LightweightGenerator {
         return ids;
     }
 
-    private Set<Long> selectByForeignKeyClosure(String tableName, TableSpec table) throws SQLException {
-        Set<Long> ids = new HashSet<>();
+    private IdSet sampleRandom(Connection conn, String tableName, TableSpec table) throws SQLException {
+        Integer maxRows = resolveMaxRows(table);
+        if (maxRows == null) {
+            throw new IllegalArgumentException("Table " + tableName + " uses the random strategy without max_rows");
+        }
+
+        // Seed from the masking salt so the same spec reproduces the same sample
+        String salt = "";
+        if (spec.getDefaults() != null && spec.getDefaults().getMasking() != null
+                && spec.getDefaults().getMasking().getDeterministicSalt() != null) {
+            salt = spec.getDefaults().getMasking().getDeterministicSalt();
+        }
+
+        return new RandomSampler(conn).sample(tableName, maxRows, table.getSubset().getTimeWindowDays(),
+                salt + ":" + tableName);
+    }
+
+    private TableReport report(String tableName) {
+        return reports.computeIfAbsent(tableName, k -> new TableReport());
+    }
+
+    private Integer resolveMaxRows(TableSpec table) {
+        Integer maxRows = table.getSubset() != null ? table.getSubset().getMaxRows() : null;
+        if (maxRows == null && spec.getDefaults() != null && spec.getDefaults().getSubset() != null) {
+            maxRows = spec.getDefaults().getSubset().getMaxRows();
+        }
+        return maxRows;
+    }
+
+    private IdSet selectByForeignKeyClosure(Connection conn, String tableName, TableSpec table) throws SQLException {
+        IdSet ids = IdSet.create();
 
         if (table.getFk() == null || table.getFk().getReferences() == null) {
             return ids;
@@ -156,45 +489,71 @@ public class LightweightGenerator {
 
         for (TableSpec.ForeignKeyReference fkRef : table.getFk().getReferences()) {
             String referencedTable = fkRef.getTable();
-            Set<Long> referencedIds = selectedIds.get(referencedTable);
+            IdSet referencedIds = selectedIds.get(referencedTable);
 
             if (referencedIds != null && !referencedIds.isEmpty()) {
-                String idList = referencedIds.stream()
-                        .map(String::valueOf)
-                        .reduce((a, b) -> a + "," + b)
-                        .orElse("");
-
-                StringBuilder query = new StringBuilder("SELECT id FROM " + tableName +
-                        " WHERE " + fkRef.getColumn() + " IN (" + idList + ")");
-
                 // Add limit
-                Integer maxRows = table.getSubset().getMaxRows();
-                if (maxRows == null && spec.getDefaults() != null && spec.getDefaults().getSubset() != null) {
-                    maxRows = spec.getDefaults().getSubset().getMaxRows();
-                }
+                Integer limit = resolveMaxRows(table);
 
-                if (maxRows != null) {
-                    query.append(" LIMIT ").append(maxRows);
+                if (referencedIds.size() > resolveTempTableThreshold(table)) {
+                    selectByTempTableJoin(conn, tableName, fkRef, referencedIds, limit, ids);
+                    continue;
                 }
 
-                try (PreparedStatement stmt = sourceConn.prepareStatement(query.toString());
-                        ResultSet rs = stmt.executeQuery()) {
+                long[] matched = new long[1];
+                BatchedIdLookup lookup = new BatchedIdLookup(conn, chunkSize);
+                lookup.forEachRow("SELECT id FROM " + tableName + " WHERE " + fkRef.getColumn(),
+                        limit != null ? "LIMIT " + limit : "",
+                        referencedIds,
+                        rs -> {
+                            ids.add(rs.getLong("id"));
+                            return limit == null || ++matched[0] < limit;
+                        });
+            }
+        }
 
-                    while (rs.next()) {
-                        ids.add(rs.getLong("id"));
-                    }
+        return ids;
+    }
+
+    private void selectByTempTableJoin(Connection conn, String tableName, TableSpec.ForeignKeyReference fkRef,
+            IdSet referencedIds, Integer limit, IdSet ids) throws SQLException {
+        System.out.println("     Joining " + referencedIds.size() + " " + fkRef.getTable()
+                + " ids through a temporary table");
+
+        try (TempIdTable tempTable = TempIdTable.load(conn, "tmp_ids_" + fkRef.getTable(), referencedIds, chunkSize)) {
+            StringBuilder query = new StringBuilder("SELECT c.id FROM " + tableName + " c JOIN "
+                    + tempTable.getName() + " t ON c." + fkRef.getColumn() + " = t.id");
+
+            if (limit != null) {
+                query.append(" LIMIT ").append(limit);
+            }
+
+            try (PreparedStatement stmt = conn.prepareStatement(query.toString());
+                    ResultSet rs = stmt.executeQuery()) {
+
+                while (rs.next()) {
+                    ids.add(rs.getLong("id"));
                 }
             }
         }
+    }
 
-        return ids;
+    private int resolveTempTableThreshold(TableSpec table) {
+        if (table.getSubset().getTempTableThreshold() != null) {
+            return table.getSubset().getTempTableThreshold();
+        }
+        if (spec.getDefaults() != null && spec.getDefaults().getExtraction() != null
+                && spec.getDefaults().getExtraction().getTempTableThreshold() != null) {
+            return spec.getDefaults().getExtraction().getTempTableThreshold();
+        }
+        return DEFAULT_TEMP_TABLE_THRESHOLD;
     }
 
-    private Set<Long> selectAll(String tableName) throws SQLException {
-        Set<Long> ids = new HashSet<>();
+    private IdSet selectAll(Connection conn, String tableName) throws SQLException {
+        IdSet ids = IdSet.create();
 
         String query = "SELECT id FROM " + tableName;
-        try (PreparedStatement stmt = sourceConn.prepareStatement(query);
+        try (PreparedStatement stmt = fetchMode.prepare(conn, query, fetchSize);
                 ResultSet rs = stmt.executeQuery()) {
 
             while (rs.next()) {
@@ -206,267 +565,385 @@ public class LightweightGenerator {
     }
 
     private void generateSqlDump(Path outputPath) throws Exception {
-        String dumpFile = outputPath.resolve("lightweight-dump.sql").toString();
+        boolean delta = previousWatermarks != null;
+        long start = System.nanoTime();
 
-        try (PrintWriter writer = new PrintWriter(new FileWriter(dumpFile))) {
-            writer.println("-- Lightweight Database Dump");
-            writer.println("-- Generated by DevDB");
-            writer.println("-- " + new Date());
-            writer.println();
+        // Mask rows in batches on a fork-join pool unless batching is off
+        transformPool = batchSize > 1 ? new ForkJoinPool(Math.max(1, poolSize)) : null;
+        try {
+            if (sharded) {
+                generateShardedDump(outputPath, delta);
+            } else {
+                generateSingleDump(outputPath, delta);
+            }
+        } finally {
+            if (transformPool != null) {
+                transformPool.shutdown();
+            }
+        }
 
-            // Generate data inserts
-            generateDataInserts(writer);
+        dumpNanos = System.nanoTime() - start;
 
-            // Generate post-load sequences
-            generatePostLoadSequences(writer);
+        if (compression != DumpCompression.NONE) {
+            System.out.println("   Compressed " + dumpBytes + " bytes to " + dumpFileBytes
+                    + " (" + compression.name().toLowerCase() + ")");
         }
 
-        System.out.println("   Generated SQL dump: " + dumpFile);
+        // Record where this run stopped so the next incremental run can pick up from here
+        watermarkStore.save(watermarks);
+        for (Map.Entry<String, IdSet> entry : selectedIds.entrySet()) {
+            watermarkStore.saveIds(entry.getKey(), entry.getValue());
+        }
     }
 
-    private void generateDataInserts(PrintWriter writer) throws SQLException {
-        List<Map.Entry<String, TableSpec>> sortedTables = spec.getTables().entrySet()
-                .stream()
-                .sorted((e1, e2) -> {
-                    Integer order1 = e1.getValue().getProcessingOrder();
-                    Integer order2 = e2.getValue().getProcessingOrder();
-                    if (order1 == null)
-                        order1 = 999;
-                    if (order2 == null)
-                        order2 = 999;
-                    return order1.compareTo(order2);
-                })
-                .collect(Collectors.toList());
-
-        for (Map.Entry<String, TableSpec> entry : sortedTables) {
-            String tableName = entry.getKey();
-            TableSpec table = entry.getValue();
-            Set<Long> ids = selectedIds.get(tableName);
-
-            if (ids == null || ids.isEmpty()) {
-                continue;
+    private void generateSingleDump(Path outputPath, boolean delta) throws Exception {
+        String baseName = delta ? DELTA_FILE
+                : format == DumpFormat.TSV ? LOAD_FILE
+                : format == DumpFormat.BINARY ? SNAPSHOT_FILE
+                : DUMP_FILE;
+        dumpFileName = format == DumpFormat.SQL ? baseName + compression.getExtension() : baseName;
+        String dumpFile = outputPath.resolve(dumpFileName).toString();
+
+        // Drop the same dump left behind in another format so a restore cannot pick up a stale copy
+        for (DumpCompression other : DumpCompression.values()) {
+            if (!dumpFileName.equals(baseName + other.getExtension())) {
+                Files.deleteIfExists(outputPath.resolve(baseName + other.getExtension()));
             }
+        }
 
-            writer.println("-- Data for table: " + tableName);
-
-            // Get column information
-            DatabaseMetaData metaData = sourceConn.getMetaData();
-            List<String> columnNames = new ArrayList<>();
+        DumpWriter writer = format == DumpFormat.TSV
+                ? new TsvDumpWriter(Paths.get(dumpFile), compression)
+                : format == DumpFormat.BINARY
+                ? new BinaryDumpWriter(Paths.get(dumpFile), metadata)
+                : new SqlDumpWriter(Files.newOutputStream(Paths.get(dumpFile)), compression, maxStatementBytes,
+                        maxStatementRows);
+        try (writer) {
+            writer.println(delta ? "-- Lightweight Database Delta"
+                    : format == DumpFormat.TSV ? "-- Lightweight Database Bulk Load"
+                    : format == DumpFormat.BINARY ? "-- Lightweight Database Snapshot"
+                    : "-- Lightweight Database Dump");
+            writer.println("-- Generated by DevDB");
+            writer.println("-- " + new Date());
+            writer.println();
 
-            try (ResultSet columns = metaData.getColumns(null, "fuel50_db", tableName, null)) {
-                while (columns.next()) {
-                    String columnName = columns.getString("COLUMN_NAME");
+            generateDataInserts(writer, delta);
 
-                    // Filter out system columns
-                    if (!isSystemColumn(columnName)) {
-                        columnNames.add(columnName);
-                    }
-                }
+            // Generate post-load sequences (the target already has them when applying a delta)
+            if (!delta) {
+                generatePostLoadSequences(writer);
             }
+        }
 
-            // Generate single INSERT statement with multiple values
-            String idList = ids.stream()
-                    .map(String::valueOf)
-                    .reduce((a, b) -> a + "," + b)
-                    .orElse("");
-
-            String query = "SELECT * FROM " + tableName + " WHERE id IN (" + idList + ")";
-
-            try (PreparedStatement stmt = sourceConn.prepareStatement(query);
-                    ResultSet rs = stmt.executeQuery()) {
-
-                List<String> valueRows = new ArrayList<>();
-
-                while (rs.next()) {
-                    List<String> values = new ArrayList<>();
-                    for (String columnName : columnNames) {
-                        Object value = rs.getObject(columnName);
-                        String processedValue = processColumnValue(tableName, columnName, value, table);
-                        values.add(processedValue);
-                    }
-                    valueRows.add("(" + String.join(", ", values) + ")");
-                }
+        dumpBytes = writer.getUncompressedBytes();
+        dumpFileBytes = writer.getCompressedBytes();
+        dumpStreamNanos = writer.getStreamNanos();
+
+        if (format == DumpFormat.TSV) {
+            System.out.println("   Generated bulk-load script: " + dumpFile + " (data in "
+                    + TsvDumpWriter.DATA_DIR + "/)");
+        } else if (format == DumpFormat.BINARY) {
+            System.out.println("   Generated snapshot script: " + dumpFile + " (data in "
+                    + BinaryDumpWriter.DATA_DIR + "/)");
+        } else {
+            System.out.println("   Generated SQL dump: " + dumpFile);
+        }
+    }
 
-                if (!valueRows.isEmpty()) {
-                    StringBuilder insert = new StringBuilder("INSERT INTO " + tableName + " (");
-                    insert.append(String.join(", ", columnNames));
-                    insert.append(") VALUES ");
-                    insert.append(String.join(",\n", valueRows));
-                    insert.append(";");
+    private void generateShardedDump(Path outputPath, boolean delta) throws Exception {
+        Path shardDir = outputPath.resolve(delta ? DELTA_SHARD_DIR : SHARD_DIR);
+        dumpFileName = shardDir.getFileName() + "/";
 
-                    writer.println(insert.toString());
+        // Shards of an earlier run would otherwise be restored alongside the new ones
+        if (Files.isDirectory(shardDir)) {
+            try (Stream<Path> previous = Files.list(shardDir)) {
+                for (Path file : previous.collect(Collectors.toList())) {
+                    Files.delete(file);
                 }
             }
-
-            writer.println();
         }
-    }
-
-    private boolean isSystemColumn(String columnName) {
-        // List of system columns to exclude
-        Set<String> systemColumns = Set.of(
-                "USER", "CURRENT_CONNECTIONS", "TOTAL_CONNECTIONS",
-                "MAX_SESSION_CONTROLLED_MEMORY", "MAX_SESSION_TOTAL_MEMORY");
+        Files.createDirectories(shardDir);
 
-        return systemColumns.contains(columnName.toUpperCase());
-    }
-
-    private String processColumnValue(String tableName, String columnName, Object value, TableSpec table) {
-        if (value == null) {
-            return "NULL";
+        Map<String, Integer> levels = foreignKeyLevels();
+        List<Map.Entry<String, TableSpec>> sortedTables = sortedTables();
+        int workers = connectionFactory != null ? Math.max(1, Math.min(parallelism, sortedTables.size())) : 1;
+        if (workers > 1) {
+            System.out.println("   Writing tables with " + workers + " workers");
         }
 
-        // Get column 'strategy'
-        ColumnSpec column = table.getColumns().get(columnName);
-        if (column == null) {
-            return formatValue(value);
+        // Each table gets its own writer and, with several workers, its own connection
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        List<Future<List<DumpShard>>> futures = new ArrayList<>();
+        shards = new ArrayList<>();
+        try {
+            for (Map.Entry<String, TableSpec> entry : sortedTables) {
+                String tableName = entry.getKey();
+                futures.add(executor.submit(() -> writeTableShards(shardDir, tableName, entry.getValue(),
+                        levels.get(tableName), delta, workers > 1)));
+            }
+            for (Future<List<DumpShard>> future : futures) {
+                shards.addAll(awaitShards(future));
+            }
+            // Lets a restore skip the tables whose parents failed to load
+            for (DumpShard shard : shards) {
+                shard.setReferences(referencedTables(shard.getTable()));
+            }
+        } finally {
+            executor.shutdownNow();
         }
 
-        String strategy = column.getStrategy();
+        // Sequence adjustments run once every table is loaded
+        if (!delta) {
+            int lastLevel = levels.values().stream().mapToInt(Integer::intValue).max().orElse(0) + 1;
+            ShardedDumpWriter writer = new ShardedDumpWriter(shardDir, "post-load", null, lastLevel,
+                    compression, 0, maxStatementBytes, maxStatementRows);
+            try (writer) {
+                generatePostLoadSequences(writer);
+            }
+            shards.addAll(writer.getShards());
+        }
 
-        switch (strategy) {
-            case "keep":
-                return formatValue(value);
-            case "mask":
-                return formatValue(maskValue(value, column));
-            case "synthesize":
-                return formatValue(synthesizeValue(value, column));
-            default:
-                return formatValue(value);
+        for (DumpShard shard : shards) {
+            dumpFileBytes += shard.getBytes();
         }
+        System.out.println("   Generated " + shards.size() + " dump files in " + shardDir);
     }
 
-    private String formatValue(Object value) {
-        if (value == null) {
-            return "NULL";
+    private List<DumpShard> writeTableShards(Path shardDir, String tableName, TableSpec table, int level,
+            boolean delta, boolean ownConnection) throws SQLException, IOException {
+        Connection conn = ownConnection ? connectionFactory.open() : sourceConn;
+        try {
+            ShardedDumpWriter writer = new ShardedDumpWriter(shardDir, tableName, tableName, level, compression,
+                    maxFileBytes, maxStatementBytes, maxStatementRows);
+            try (writer) {
+                writeTableData(writer, tableName, table, delta, conn);
+            }
+            synchronized (this) {
+                dumpBytes += writer.getUncompressedBytes();
+                dumpStreamNanos += writer.getStreamNanos();
+            }
+            return writer.getShards();
+        } finally {
+            if (ownConnection) {
+                conn.close();
+            }
         }
+    }
 
-        if (value instanceof String) {
-            return "'" + value.toString().replace("'", "''") + "'";
+    private List<String> referencedTables(String tableName) {
+        TableSpec table = spec.getTables().get(tableName);
+        Set<String> references = new TreeSet<>();
+        if (table.getFk() != null && table.getFk().getReferences() != null) {
+            for (TableSpec.ForeignKeyReference fkRef : table.getFk().getReferences()) {
+                if (!tableName.equals(fkRef.getTable())) {
+                    references.add(fkRef.getTable());
+                }
+            }
         }
+        return new ArrayList<>(references);
+    }
 
-        if (value instanceof java.sql.Timestamp) {
-            return "'" + value.toString() + "'";
+    private static List<DumpShard> awaitShards(Future<List<DumpShard>> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw new IllegalStateException("Writing table dump failed", cause);
         }
+    }
 
-        if (value instanceof java.sql.Date) {
-            return "'" + value.toString() + "'";
+    private void openDictionary(Path outputPath) throws IOException {
+        DatabaseSpec.MaskingDefaults masking = spec.getDefaults() != null ? spec.getDefaults().getMasking() : null;
+        if (masking == null || !masking.isDictionary()) {
+            return;
         }
 
-        if (value instanceof java.sql.Time) {
-            return "'" + value.toString() + "'";
+        dictionary = MaskingDictionary.open(outputPath, String.valueOf(masking.getDeterministicSalt()),
+                DeterministicHasher.Algorithm.fromConfig(masking.getHashAlgorithm()).name(),
+                masking.getDictionaryCapacity() != null
+                        ? masking.getDictionaryCapacity()
+                        : MaskingDictionary.DEFAULT_CAPACITY);
+        if (dictionary == null) {
+            System.out.println("⚠️  Warning: " + MaskingDictionary.DICTIONARY_FILE
+                    + " is in use by another run, masking without it");
+            return;
         }
+        System.out.println("   Masking dictionary: " + dictionary.size() + " entries");
+        planner.setDictionary(dictionary);
+    }
 
-        if (value instanceof Boolean) {
-            return ((Boolean) value) ? "1" : "0";
+    private void compileTransformPlans() throws SQLException {
+        // Resolve every column rule before reading rows, so a bad spec fails immediately
+        for (Map.Entry<String, TableSpec> entry : spec.getTables().entrySet()) {
+            SchemaMetadata.TableMetadata tableMetadata = metadata.getTables().get(entry.getKey());
+            if (tableMetadata == null) {
+                throw new SQLException("Table " + entry.getKey() + " not found in schema " + metadata.getSchema());
+            }
+            plans.put(entry.getKey(), planner.plan(entry.getKey(), entry.getValue(), tableMetadata));
         }
-
-        return value.toString();
     }
 
-    private Object maskValue(Object value, ColumnSpec column) {
-        if (column.getMask() == null) {
-            return value;
+    private void generateDataInserts(DumpWriter writer, boolean delta) throws SQLException, IOException {
+        for (Map.Entry<String, TableSpec> entry : sortedTables()) {
+            writeTableData(writer, entry.getKey(), entry.getValue(), delta, sourceConn);
         }
+    }
 
-        String type = column.getMask().getType();
-        String deterministicKey = column.getMask().getDeterministicKey();
-        if (deterministicKey == null || deterministicKey.isEmpty()) {
-            deterministicKey = spec.getDefaults().getMasking().getDeterministicSalt();
-        }
-        // Generate deterministic masked value
-        String key = deterministicKey + "_" + value.toString();
-        String hash = generateHash(key);
+    private void writeTableData(DumpWriter writer, String tableName, TableSpec table, boolean delta, Connection conn)
+            throws SQLException, IOException {
+        IdSet ids = selectedIds.get(tableName);
+        WatermarkStore.TableWatermark previous = delta ? previousWatermarks.get(tableName) : null;
 
-        switch (type) {
-            case "username":
-                return "user_" + hash.substring(0, 8);
-            case "numeric_noise":
-                if (value instanceof Number) {
-                    double original = ((Number) value).doubleValue();
-                    double noise = (hash.hashCode() % 100) / 100.0 * (column.getMask().getPercent() / 100.0) * original;
-                    return original + noise;
-                }
-                return value;
-            case "category_map":
-                return "masked_" + hash.substring(0, 6);
-            default:
-                return value;
+        if (previous != null) {
+            watermarks.put(tableName, previous);
         }
-    }
 
-    private Object synthesizeValue(Object value, ColumnSpec column) {
-        if (column.getSynth() == null) {
-            return value;
+        if (ids == null || ids.isEmpty()) {
+            return;
         }
 
-        String type = column.getSynth().getType();
-        String deterministicKey = column.getSynth().getDeterministicKey();
-        if (deterministicKey == null || deterministicKey.isEmpty()) {
-            deterministicKey = spec.getDefaults().getMasking().getDeterministicSalt();
+        writer.println("-- Data for table: " + tableName);
+
+        SchemaMetadata.TableMetadata tableMetadata = metadata.getTables().get(tableName);
+        ColumnTransformPlan plan = plans.get(tableName);
+        List<String> columnNames = plan.getColumnNames();
+
+        String watermarkColumn = columnNames.contains("updated_at") ? "updated_at"
+                : columnNames.contains("created_at") ? "created_at" : null;
+        WatermarkTracker tracker = new WatermarkTracker(previous != null ? previous.getMaxId() : null,
+                previous != null && previous.getMaxValue() != null
+                        ? Timestamp.valueOf(previous.getMaxValue())
+                        : null);
+
+        BatchedIdLookup.RowHandler observer = rs -> {
+            tracker.observe(rs.getLong("id"), watermarkColumn != null ? rs.getTimestamp(watermarkColumn) : null);
+            return true;
+        };
+
+        PartitionedExtractor.RowFormatter formatter = rs -> {
+            observer.onRow(rs);
+            return plan.formatRow(rs);
+        };
+
+        // Stream rows into the table's INSERTs or data file as they are formatted
+        writer.beginTable(tableName, columnNames, delta ? upsertClause(columnNames, tableMetadata) : null);
+
+        PartitionedExtractor.RowSink sink = row -> {
+            try {
+                writer.writeRow(row);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+
+        BatchTransformer batch = transformPool != null
+                ? new BatchTransformer(plan, batchSize, transformPool, sink)
+                : null;
+
+        BatchedIdLookup.RowHandler rowWriter = rs -> {
+            if (batch != null) {
+                observer.onRow(rs);
+                batch.add(rs);
+            } else {
+                sink.accept(formatter.format(rs));
+            }
+            return true;
+        };
+
+        List<Object> changedRowsParameters = new ArrayList<>();
+        String changedRows = previous != null ? changedRowsCondition(previous, changedRowsParameters) : null;
+        int partitions = table.getPartitions() != null ? table.getPartitions() : 1;
+        if (partitions > 1 && plan.hasUniqueColumns()) {
+            // Unique collisions must be resolved in id order, which concurrent slices cannot give
+            System.out.println("⚠️  Warning: " + tableName + " has unique masked columns;"
+                    + " extracting it serially instead of in " + partitions + " partitions");
+            partitions = 1;
         }
-        // Generate deterministic synthetic value
-        String key = deterministicKey + "_" + value.toString();
-        String hash = generateHash(key);
 
-        switch (type) {
-            case "email":
-                String domain = column.getSynth().getDomain();
-                if (domain == null && spec.getDefaults() != null && spec.getDefaults().getMasking() != null) {
-                    domain = spec.getDefaults().getMasking().getEmailDomain();
+        // The unique fingerprint runs are memory-mapped files; release them even when the table fails
+        try {
+            if (changedRows == null && partitions > 1 && connectionFactory != null) {
+                // Read PK range slices concurrently; rows are still written in id order
+                PartitionedExtractor extractor = new PartitionedExtractor(connectionFactory, pageSize);
+                report(tableName).setPartitions(extractor.extract(tableName, ids, partitions, formatter, sink));
+            } else if ("all".equals(table.getSubset().getStrategy())) {
+                // Full tables are streamed directly instead of being looked up id by id
+                String query = "SELECT * FROM " + tableName + (changedRows != null ? " WHERE " + changedRows : "");
+                try (PreparedStatement stmt = fetchMode.prepare(conn, query, fetchSize)) {
+                    KeysetPageReader.bindParameters(stmt, changedRowsParameters);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            rowWriter.onRow(rs);
+                        }
+                    }
+                }
+            } else {
+                // Walk the selected ids page by page; the dump writer buffers and flushes on its own
+                Runnable afterPage = () -> { };
+                KeysetPageReader pageReader = new KeysetPageReader(conn, pageSize);
+                IdSet previousIds = changedRows != null ? watermarkStore.loadIds(tableName) : null;
+
+                if (previousIds != null) {
+                    // Newly selected rows are always needed; previously selected ones only when changed
+                    pageReader.forEachRow(tableName, IdSet.difference(ids, previousIds), rowWriter, afterPage);
+                    pageReader.forEachRow(tableName, changedRows, changedRowsParameters,
+                            IdSet.intersection(ids, previousIds), rowWriter, afterPage);
+                } else {
+                    pageReader.forEachRow(tableName, ids, rowWriter, afterPage);
                 }
-                return "user" + hash.substring(0, 6) + "@" + (domain != null ? domain : "dev.local");
+            }
 
-            case "password_hash":
-                return "$2b$10$" + hash.substring(0, 22) + "..." + hash.substring(22, 31);
+            if (batch != null) {
+                batch.flush();
+            }
+        } finally {
+            plan.closeUniqueSets();
+        }
+        writer.endTable();
 
-            case "address":
-                return hash.substring(0, 8) + " Fake St, Test City, TC 12345";
+        WatermarkStore.TableWatermark watermark = new WatermarkStore.TableWatermark();
+        watermark.setColumn(watermarkColumn);
+        watermark.setMaxValue(tracker.getMaxValue() != null ? tracker.getMaxValue().toString() : null);
+        watermark.setMaxId(tracker.getMaxId());
+        watermarks.put(tableName, watermark);
 
-            case "credit_card":
-                if ("last4-only".equals(column.getSynth().getFormat())) {
-                    return "XXXX-XXXX-XXXX-" + hash.substring(0, 4);
-                }
-                return "XXXX-XXXX-XXXX-" + hash.substring(0, 4);
+        writer.println();
+    }
 
-            default:
-                return value;
+    // Watermark values are bound as parameters, never spliced into the SQL
+    private String changedRowsCondition(WatermarkStore.TableWatermark previous, List<Object> parameters) {
+        List<String> conditions = new ArrayList<>();
+        if (previous.getColumn() != null && previous.getMaxValue() != null) {
+            conditions.add(previous.getColumn() + " > ?");
+            parameters.add(Timestamp.valueOf(previous.getMaxValue()));
         }
+        if (previous.getMaxId() != null) {
+            conditions.add("id > ?");
+            parameters.add(previous.getMaxId());
+        }
+        return conditions.isEmpty() ? null : String.join(" OR ", conditions);
     }
 
-    private String generateHash(String input) {
-        try {
-            MessageDigest md = MessageDigest.getInstance("SHA-256");
-            byte[] hash = md.digest(input.getBytes());
-            StringBuilder hexString = new StringBuilder();
-            for (byte b : hash) {
-                String hex = Integer.toHexString(0xff & b);
-                if (hex.length() == 1) {
-                    hexString.append('0');
-                }
-                hexString.append(hex);
+    private String upsertClause(List<String> columnNames, SchemaMetadata.TableMetadata tableMetadata) {
+        List<String> updates = new ArrayList<>();
+        for (String columnName : columnNames) {
+            if (!tableMetadata.getPrimaryKey().contains(columnName)) {
+                updates.add(columnName + " = VALUES(" + columnName + ")");
             }
-            return hexString.toString();
-        } catch (NoSuchAlgorithmException e) {
-            return String.valueOf(input.hashCode());
         }
+        // A table made only of key columns still needs a no-op update to stay idempotent
+        if (updates.isEmpty()) {
+            updates.add(columnNames.get(0) + " = " + columnNames.get(0));
+        }
+        return "ON DUPLICATE KEY UPDATE " + String.join(", ", updates);
     }
 
-    private void generatePostLoadSequences(PrintWriter writer) {
+    private void generatePostLoadSequences(DumpWriter writer) throws IOException {
         writer.println("-- Post-load sequence adjustments");
 
-        List<Map.Entry<String, TableSpec>> sortedTables = spec.getTables().entrySet()
-                .stream()
-                .sorted((e1, e2) -> {
-                    Integer order1 = e1.getValue().getProcessingOrder();
-                    Integer order2 = e2.getValue().getProcessingOrder();
-                    if (order1 == null)
-                        order1 = 999;
-                    if (order2 == null)
-                        order2 = 999;
-                    return order1.compareTo(order2);
-                })
-                .collect(Collectors.toList());
+        List<Map.Entry<String, TableSpec>> sortedTables = sortedTables();
 
         for (Map.Entry<String, TableSpec> entry : sortedTables) {
             TableSpec table = entry.getValue();
@@ -477,35 +954,69 @@ public class LightweightGenerator {
         }
     }
 
+    private void writeDumpStats(PrintWriter writer) {
+        double seconds = dumpNanos / 1e9;
+        writer.println("  \"dump\": {");
+        writer.println("    \"file\": \"" + dumpFileName + "\",");
+        writer.println("    \"format\": \"" + format.name().toLowerCase() + "\",");
+        writer.println("    \"compression\": \"" + compression.name().toLowerCase() + "\",");
+        writer.println("    \"uncompressed_bytes\": " + dumpBytes + ",");
+        writer.println("    \"file_bytes\": " + dumpFileBytes + ",");
+        writer.println("    \"compression_ratio\": " + String.format(Locale.ROOT, "%.2f",
+                dumpFileBytes > 0 ? (double) dumpBytes / dumpFileBytes : 1.0) + ",");
+        writer.println("    \"write_seconds\": " + String.format(Locale.ROOT, "%.3f", seconds) + ",");
+        // Time inside the compressor and file writes, versus the whole extract-mask-write step
+        writer.println("    \"stream_seconds\": "
+                + String.format(Locale.ROOT, "%.3f", dumpStreamNanos / 1e9) + ",");
+        writer.println("    \"throughput_mb_per_sec\": " + String.format(Locale.ROOT, "%.1f",
+                seconds > 0 ? dumpBytes / (1024.0 * 1024.0) / seconds : 0.0));
+        writer.println("  },");
+    }
+
+    private void writeShards(PrintWriter writer) {
+        writer.println("  \"shards\": [");
+        for (int i = 0; i < shards.size(); i++) {
+            DumpShard shard = shards.get(i);
+            writer.print("    { \"file\": \"" + shard.getFile() + "\""
+                    + ", \"table\": " + (shard.getTable() != null ? "\"" + shard.getTable() + "\"" : "null")
+                    + ", \"part\": " + shard.getPart()
+                    + ", \"fk_level\": " + shard.getFkLevel()
+                    + (shard.getReferences() == null ? "" : ", \"references\": [" + shard.getReferences().stream()
+                            .map(table -> "\"" + table + "\"").collect(Collectors.joining(", ")) + "]")
+                    + ", \"rows\": " + shard.getRows()
+                    + ", \"bytes\": " + shard.getBytes()
+                    + ", \"sha256\": \"" + shard.getSha256() + "\" }");
+            writer.println(i < shards.size() - 1 ? "," : "");
+        }
+        writer.println("  ],");
+    }
+
     private void generateManifest(Path outputPath) throws IOException {
         String manifestFile = outputPath.resolve("manifest.json").toString();
 
         try (PrintWriter writer = new PrintWriter(new FileWriter(manifestFile))) {
             writer.println("{");
             writer.println("  \"generated_at\": \"" + new Date().toString() + "\",");
-            writer.println("  \"source_database\": \"fuel50_db\",");
+            writer.println("  \"source_database\": \"" + metadata.getSchema() + "\",");
             writer.println("  \"destination_database\": \"fuel50_db\",");
+            writeDumpStats(writer);
+            if (shards != null) {
+                writeShards(writer);
+            }
+            if (dictionary != null) {
+                writer.println("  \"masking_dictionary\": { \"entries\": " + dictionary.size()
+                        + ", \"hits\": " + dictionary.getHits() + ", \"misses\": " + dictionary.getMisses() + " },");
+            }
             writer.println("  \"tables\": {");
 
             boolean first = true;
 
-            List<Map.Entry<String, TableSpec>> sortedTables = spec.getTables().entrySet()
-                    .stream()
-                    .sorted((e1, e2) -> {
-                        Integer order1 = e1.getValue().getProcessingOrder();
-                        Integer order2 = e2.getValue().getProcessingOrder();
-                        if (order1 == null)
-                            order1 = 999;
-                        if (order2 == null)
-                            order2 = 999;
-                        return order1.compareTo(order2);
-                    })
-                    .collect(Collectors.toList());
+            List<Map.Entry<String, TableSpec>> sortedTables = sortedTables();
 
             for (Map.Entry<String, TableSpec> entry : sortedTables) {
                 String tableName = entry.getKey();
                 TableSpec table = entry.getValue();
-                Set<Long> ids = selectedIds.get(tableName);
+                IdSet ids = selectedIds.get(tableName);
 
                 if (!first) {
                     writer.println(",");
@@ -515,8 +1026,58 @@ public class LightweightGenerator {
                 writer.println("    \"" + tableName + "\": {");
                 writer.println("      \"strategy\": \"" + table.getSubset().getStrategy() + "\",");
                 writer.println("      \"selected_rows\": " + (ids != null ? ids.size() : 0) + ",");
-                writer.println("      \"max_rows\": "
+                writer.print("      \"max_rows\": "
                         + (table.getSubset().getMaxRows() != null ? table.getSubset().getMaxRows() : "null"));
+
+                TableReport report = reports.get(tableName);
+                if (report != null && report.getTimeWindowPlan() != null) {
+                    writer.println(",");
+                    writer.println("      \"time_window_plan\": \"" + report.getTimeWindowPlan() + "\",");
+                    writer.print("      \"time_window_min_id\": "
+                            + (report.getTimeWindowMinId() != null ? report.getTimeWindowMinId() : "null"));
+                }
+                if (report != null && report.getPartitions() != null) {
+                    writer.println(",");
+                    writer.println("      \"partitions\": [");
+                    for (int i = 0; i < report.getPartitions().size(); i++) {
+                        TableReport.PartitionTiming timing = report.getPartitions().get(i);
+                        writer.print("        { \"index\": " + timing.getIndex()
+                                + ", \"first_id\": " + timing.getFirstId()
+                                + ", \"last_id\": " + timing.getLastId()
+                                + ", \"rows\": " + timing.getRows()
+                                + ", \"millis\": " + timing.getMillis() + " }");
+                        writer.println(i < report.getPartitions().size() - 1 ? "," : "");
+                    }
+                    writer.print("      ]");
+                }
+                ColumnTransformPlan plan = plans.get(tableName);
+                Map<String, TransformCache> caches = plan != null ? plan.getCaches() : Map.of();
+                if (!caches.isEmpty()) {
+                    writer.println(",");
+                    writer.println("      \"masking_cache\": {");
+                    int index = 0;
+                    for (Map.Entry<String, TransformCache> cache : caches.entrySet()) {
+                        long hits = cache.getValue().getHits();
+                        long lookups = hits + cache.getValue().getMisses();
+                        writer.print("        \"" + cache.getKey() + "\": { \"hits\": " + hits
+                                + ", \"misses\": " + cache.getValue().getMisses()
+                                + ", \"hit_rate\": "
+                                + (lookups > 0 ? String.format(Locale.ROOT, "%.4f", (double) hits / lookups) : "null")
+                                + " }");
+                        writer.println(++index < caches.size() ? "," : "");
+                    }
+                    writer.print("      }");
+                }
+                Map<String, Long> collisions = plan != null ? plan.getUniqueCollisions() : Map.of();
+                if (!collisions.isEmpty()) {
+                    writer.println(",");
+                    writer.print("      \"unique_collisions\": { ");
+                    writer.print(collisions.entrySet().stream()
+                            .map(e -> "\"" + e.getKey() + "\": " + e.getValue())
+                            .collect(Collectors.joining(", ")));
+                    writer.print(" }");
+                }
+                writer.println();
                 writer.print("    }");
             }
 
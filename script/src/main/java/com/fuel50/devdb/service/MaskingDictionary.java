@@ -0,0 +1,293 @@
+package com.fuel50.devdb.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Persistent dictionary of derived masking values, kept in a memory-mapped file in the
+ * output directory so later runs and every table reuse them instead of re-hashing.
+ *
+ * Layout: a fixed header, an open-addressing slot table of (fingerprint, fingerprint,
+ * value offset) triples, then an append-only value area. Fingerprints are SipHash-2-4
+ * keyed by the salt, so the file cannot be used to check guessed values without it. An entry becomes visible only
+ * when its offset is written, after its value and fingerprints. The header records the
+ * salt and hash algorithm, the capacity and a dirty flag; a file that does not match or
+ * was not closed cleanly is discarded and rebuilt.
+ */
+public class MaskingDictionary implements Closeable {
+    public static final String DICTIONARY_FILE = "masking-dictionary.bin";
+    public static final int DEFAULT_CAPACITY = 1_000_000;
+
+    private static final long MAGIC = 0x4445564442444943L;
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 64;
+    private static final int SLOT_SIZE = 24;
+    private static final int AVERAGE_VALUE_SIZE = 48;
+
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 8;
+    private static final int DIRTY_OFFSET = 12;
+    private static final int SALT_OFFSET = 16;
+    private static final int CAPACITY_OFFSET = 24;
+    private static final int COUNT_OFFSET = 28;
+    private static final int VALUE_END_OFFSET = 32;
+
+    private static final byte STRING_VALUE = 1;
+    private static final byte DOUBLE_VALUE = 2;
+
+    private final FileChannel channel;
+    private final FileLock lock;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private final int slotMask;
+    private final int valueStart;
+    // Two independent SipHash keys, so an entry is only matched when 128 bits agree
+    private final long[] keys;
+    private final ReadWriteLock rwLock = new ReentrantReadWriteLock();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private boolean full;
+
+    private MaskingDictionary(FileChannel channel, FileLock lock, MappedByteBuffer buffer, int capacity,
+            long[] keys) {
+        this.channel = channel;
+        this.lock = lock;
+        this.buffer = buffer;
+        this.capacity = capacity;
+        this.slotMask = slotCount(capacity) - 1;
+        this.valueStart = HEADER_SIZE + slotCount(capacity) * SLOT_SIZE;
+        this.keys = keys;
+    }
+
+    /**
+     * Opens the dictionary in {@code outputDir}, rebuilding it when it is stale. Returns null
+     * when another process holds it.
+     */
+    public static MaskingDictionary open(Path outputDir, String salt, String algorithm, int capacity)
+            throws IOException {
+        if (capacity <= 0 || capacity > (1 << 26)) {
+            throw new IllegalArgumentException("Invalid masking dictionary capacity: " + capacity);
+        }
+        long fileSize = HEADER_SIZE + (long) slotCount(capacity) * SLOT_SIZE + (long) capacity * AVERAGE_VALUE_SIZE;
+        if (fileSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid masking dictionary capacity: " + capacity);
+        }
+
+        Path file = outputDir.resolve(DICTIONARY_FILE);
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        FileLock lock;
+        try {
+            lock = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            // Already open elsewhere in this JVM
+            lock = null;
+        }
+        if (lock == null) {
+            channel.close();
+            return null;
+        }
+
+        long saltFingerprint = FingerprintSet.fingerprint(salt + "\u0000" + algorithm);
+        String stale = staleReason(channel, fileSize, saltFingerprint, capacity);
+        if (stale != null) {
+            if (channel.size() > 0) {
+                System.out.println("   Rebuilding masking dictionary: " + stale);
+            }
+            channel.truncate(0);
+        }
+
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize);
+        MaskingDictionary dictionary = new MaskingDictionary(channel, lock, buffer, capacity, entryKeys(salt));
+        if (stale != null) {
+            buffer.putLong(MAGIC_OFFSET, MAGIC);
+            buffer.putInt(VERSION_OFFSET, VERSION);
+            buffer.putLong(SALT_OFFSET, saltFingerprint);
+            buffer.putInt(CAPACITY_OFFSET, capacity);
+            buffer.putInt(COUNT_OFFSET, 0);
+            buffer.putLong(VALUE_END_OFFSET, dictionary.valueStart);
+        }
+
+        // Cleared on close; a crash leaves it set so the next run starts over
+        buffer.putInt(DIRTY_OFFSET, 1);
+        buffer.force();
+        return dictionary;
+    }
+
+    private static String staleReason(FileChannel channel, long fileSize, long saltFingerprint, int capacity)
+            throws IOException {
+        if (channel.size() != fileSize) {
+            return channel.size() == 0 ? "new" : "capacity changed";
+        }
+
+        MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+        if (header.getLong(MAGIC_OFFSET) != MAGIC || header.getInt(VERSION_OFFSET) != VERSION) {
+            return "unrecognised format";
+        }
+        if (header.getLong(SALT_OFFSET) != saltFingerprint) {
+            return "salt or hash algorithm changed";
+        }
+        if (header.getInt(CAPACITY_OFFSET) != capacity) {
+            return "capacity changed";
+        }
+        if (header.getInt(DIRTY_OFFSET) != 0) {
+            return "previous run did not finish";
+        }
+        return null;
+    }
+
+    // Kept apart from the column hashing key, which is derived from the bare salt
+    private static long[] entryKeys(String salt) {
+        byte[] key = DeterministicHasher.sha256("masking-dictionary\u0000" + (salt != null ? salt : ""));
+        long[] keys = new long[4];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = DeterministicHasher.readLong(key, i * 8);
+        }
+        return keys;
+    }
+
+    private static int slotCount(int capacity) {
+        // Keep the load factor at or below one half
+        return Integer.highestOneBit(Math.max(1, capacity) * 2 - 1) << 1;
+    }
+
+    /** Returns the stored value for {@code key} under {@code transformId}, or null. */
+    public Object get(String transformId, Object key) {
+        byte[] entry = (transformId + "\u0000" + key).getBytes(StandardCharsets.UTF_8);
+        long first = DeterministicHasher.sipHash24(keys[0], keys[1], entry, entry.length);
+        long second = DeterministicHasher.sipHash24(keys[2], keys[3], entry, entry.length);
+
+        rwLock.readLock().lock();
+        try {
+            int slot = find(first, second);
+            long offset = slot >= 0 ? buffer.getLong(slotPosition(slot) + 16) : 0;
+            if (offset == 0) {
+                misses.increment();
+                return null;
+            }
+            hits.increment();
+            return readValue((int) offset);
+        } finally {
+            rwLock.readLock().unlock();
+        }
+    }
+
+    /** Stores {@code value} unless it is already present or the dictionary is full. */
+    public void put(String transformId, Object key, Object value) {
+        byte[] encoded;
+        if (value instanceof String) {
+            encoded = ((String) value).getBytes(StandardCharsets.UTF_8);
+        } else if (value instanceof Double) {
+            encoded = null;
+        } else {
+            return;
+        }
+
+        byte[] entry = (transformId + "\u0000" + key).getBytes(StandardCharsets.UTF_8);
+        long first = DeterministicHasher.sipHash24(keys[0], keys[1], entry, entry.length);
+        long second = DeterministicHasher.sipHash24(keys[2], keys[3], entry, entry.length);
+        int length = encoded != null ? 5 + encoded.length : 9;
+
+        rwLock.writeLock().lock();
+        try {
+            int slot = find(first, second);
+            int position = slotPosition(slot);
+            if (buffer.getLong(position + 16) != 0) {
+                return;
+            }
+
+            long valueEnd = buffer.getLong(VALUE_END_OFFSET);
+            if (buffer.getInt(COUNT_OFFSET) >= capacity || valueEnd + length > buffer.capacity()) {
+                if (!full) {
+                    full = true;
+                    System.out.println("⚠️  Warning: masking dictionary is full; new values are no longer stored");
+                }
+                return;
+            }
+
+            int offset = (int) valueEnd;
+            if (encoded != null) {
+                buffer.put(offset, STRING_VALUE);
+                buffer.putInt(offset + 1, encoded.length);
+                buffer.put(offset + 5, encoded);
+            } else {
+                buffer.put(offset, DOUBLE_VALUE);
+                buffer.putDouble(offset + 1, (Double) value);
+            }
+            buffer.putLong(position, first);
+            buffer.putLong(position + 8, second);
+            buffer.putLong(position + 16, offset);
+            buffer.putLong(VALUE_END_OFFSET, valueEnd + length);
+            buffer.putInt(COUNT_OFFSET, buffer.getInt(COUNT_OFFSET) + 1);
+        } finally {
+            rwLock.writeLock().unlock();
+        }
+    }
+
+    // Returns the slot holding the fingerprints, or the empty slot where they would go
+    private int find(long first, long second) {
+        int slot = (int) (first ^ (first >>> 32)) & slotMask;
+        while (true) {
+            int position = slotPosition(slot);
+            if (buffer.getLong(position + 16) == 0
+                    || (buffer.getLong(position) == first && buffer.getLong(position + 8) == second)) {
+                return slot;
+            }
+            slot = (slot + 1) & slotMask;
+        }
+    }
+
+    private int slotPosition(int slot) {
+        return HEADER_SIZE + slot * SLOT_SIZE;
+    }
+
+    private Object readValue(int offset) {
+        if (buffer.get(offset) == DOUBLE_VALUE) {
+            return buffer.getDouble(offset + 1);
+        }
+        byte[] bytes = new byte[buffer.getInt(offset + 1)];
+        buffer.get(offset + 5, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public int size() {
+        rwLock.readLock().lock();
+        try {
+            return buffer.getInt(COUNT_OFFSET);
+        } finally {
+            rwLock.readLock().unlock();
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    @Override
+    public void close() throws IOException {
+        rwLock.writeLock().lock();
+        try {
+            buffer.force();
+            buffer.putInt(DIRTY_OFFSET, 0);
+            buffer.force();
+            lock.release();
+            channel.close();
+        } finally {
+            rwLock.writeLock().unlock();
+        }
+    }
+}
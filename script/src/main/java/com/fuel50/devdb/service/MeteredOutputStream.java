@@ -0,0 +1,57 @@
+package com.fuel50.devdb.service;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Counts and times the bytes passing through to the wrapped stream, without buffering
+ * anything itself.
+ */
+public class MeteredOutputStream extends FilterOutputStream {
+    private long bytes;
+    private long nanos;
+
+    public MeteredOutputStream(OutputStream out) {
+        super(out);
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    /** Time spent inside the wrapped stream's write, flush and close calls. */
+    public long getNanos() {
+        return nanos;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        long start = System.nanoTime();
+        out.write(b);
+        bytes++;
+        nanos += System.nanoTime() - start;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        long start = System.nanoTime();
+        out.write(b, off, len);
+        bytes += len;
+        nanos += System.nanoTime() - start;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        long start = System.nanoTime();
+        out.flush();
+        nanos += System.nanoTime() - start;
+    }
+
+    @Override
+    public void close() throws IOException {
+        long start = System.nanoTime();
+        out.close();
+        nanos += System.nanoTime() - start;
+    }
+}
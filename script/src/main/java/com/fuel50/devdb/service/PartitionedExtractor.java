@@ -0,0 +1,149 @@
+package com.fuel50.devdb.service;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Extracts one table as N contiguous slices of its sorted selected ids, each read and
+ * formatted concurrently on its own connection. Workers spill formatted rows to temporary
+ * files, which are then replayed into the sink in partition order, so the output is the
+ * same as a serial extraction.
+ */
+public class PartitionedExtractor {
+
+    @FunctionalInterface
+    public interface RowFormatter {
+        byte[] format(ResultSet rs) throws SQLException;
+    }
+
+    @FunctionalInterface
+    public interface RowSink {
+        void accept(byte[] row);
+    }
+
+    private final ConnectionFactory connectionFactory;
+    private final int pageSize;
+
+    public PartitionedExtractor(ConnectionFactory connectionFactory, int pageSize) {
+        this.connectionFactory = connectionFactory;
+        this.pageSize = pageSize;
+    }
+
+    public List<TableReport.PartitionTiming> extract(String tableName, IdSet ids, int partitions,
+            RowFormatter formatter, RowSink sink) throws SQLException, IOException {
+        int total = ids.size();
+        int count = Math.max(1, Math.min(partitions, total));
+        ExecutorService executor = Executors.newFixedThreadPool(count);
+        List<Future<TableReport.PartitionTiming>> futures = new ArrayList<>();
+        List<Path> spillFiles = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < count; i++) {
+                int from = (int) ((long) total * i / count);
+                int to = (int) ((long) total * (i + 1) / count);
+                Path spill = Files.createTempFile("devdb-" + tableName + "-p" + i + "-", ".rows");
+                spillFiles.add(spill);
+
+                int index = i;
+                IdSet slice = ids.slice(from, to);
+                futures.add(executor.submit(() -> extractPartition(tableName, index, slice, formatter, spill)));
+            }
+
+            List<TableReport.PartitionTiming> timings = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                // Partition i can be replayed while later partitions are still being read
+                timings.add(await(futures.get(i)));
+                replay(spillFiles.get(i), sink);
+                Files.deleteIfExists(spillFiles.get(i));
+            }
+            return timings;
+        } finally {
+            executor.shutdownNow();
+            for (Path spill : spillFiles) {
+                Files.deleteIfExists(spill);
+            }
+        }
+    }
+
+    private TableReport.PartitionTiming extractPartition(String tableName, int index, IdSet slice,
+            RowFormatter formatter, Path spill) throws SQLException, IOException {
+        long start = System.nanoTime();
+        long rows;
+
+        try (Connection conn = connectionFactory.open();
+                DataOutputStream out = new DataOutputStream(
+                        new BufferedOutputStream(Files.newOutputStream(spill), 1 << 16))) {
+            IOException[] failure = new IOException[1];
+
+            rows = new KeysetPageReader(conn, pageSize).forEachRow(tableName, slice, rs -> {
+                byte[] row = formatter.format(rs);
+                try {
+                    out.writeInt(row.length);
+                    out.write(row);
+                } catch (IOException e) {
+                    failure[0] = e;
+                    return false;
+                }
+                return true;
+            }, () -> {
+            });
+
+            if (failure[0] != null) {
+                throw failure[0];
+            }
+        }
+
+        TableReport.PartitionTiming timing = new TableReport.PartitionTiming();
+        timing.setIndex(index);
+        timing.setFirstId(slice.isEmpty() ? null : slice.get(0));
+        timing.setLastId(slice.isEmpty() ? null : slice.get(slice.size() - 1));
+        timing.setRows(rows);
+        timing.setMillis((System.nanoTime() - start) / 1_000_000);
+        return timing;
+    }
+
+    private void replay(Path spill, RowSink sink) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(spill), 1 << 16))) {
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    return;
+                }
+                byte[] row = new byte[length];
+                in.readFully(row);
+                sink.accept(row);
+            }
+        }
+    }
+
+    private static TableReport.PartitionTiming await(Future<TableReport.PartitionTiming> future)
+            throws SQLException, IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while extracting partition", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            }
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new SQLException("Partition extraction failed", cause);
+        }
+    }
+}
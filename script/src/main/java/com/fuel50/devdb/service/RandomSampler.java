@@ -0,0 +1,236 @@
+package com.fuel50.devdb.service;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Reproducible Bernoulli sampling over the primary key index.
+ *
+ * Every id is kept or dropped by a seeded hash of the id alone, with a one in eight chance,
+ * so the outcome does not depend on the order rows are read in. The id range is cut into
+ * cells sized to hold about 64 ids each, and cells are read with index-only range scans in
+ * a seeded order until enough ids are kept. A sample of n rows reads about 8n ids whatever
+ * the size of the table, and never sorts or scans it. A table too small for that is read
+ * whole and the n ids with the lowest hashes are kept instead.
+ */
+public class RandomSampler {
+    // One id in KEEP_ONE_IN is kept: those whose hash is below the unsigned threshold
+    private static final long KEEP_ONE_IN = 8;
+    private static final long KEEP_THRESHOLD = Long.divideUnsigned(-1L, KEEP_ONE_IN);
+
+    private static final int IDS_PER_CELL = 64;
+    private static final int CELLS_PER_QUERY = 100;
+    private static final int DENSITY_PROBES = 8;
+    private static final int DENSITY_PROBE_IDS = 256;
+
+    private final Connection conn;
+
+    public RandomSampler(Connection conn) {
+        this.conn = conn;
+    }
+
+    /**
+     * Samples up to {@code maxRows} ids from the table.
+     *
+     * @param windowDays when set, only rows created in the last N days are sampled; the lower id
+     *                   bound is found with one seek on the created_at index
+     * @param seedKey    seeds the id hashes and the cell order, so the same key and data give the same sample
+     */
+    public IdSet sample(String tableName, int maxRows, Integer windowDays, String seedKey) throws SQLException {
+        long[] bounds = findIdRange(tableName, windowDays);
+        if (bounds == null || maxRows <= 0) {
+            return IdSet.create();
+        }
+
+        long min = bounds[0];
+        long max = bounds[1];
+        long seed = DeterministicHasher.seed(seedKey);
+
+        // Reading the whole range is no dearer than the cells a sample of this size would need
+        double density = estimateDensity(tableName, min, max, seed);
+        double estimatedIds = (max - min + 1) * density;
+        if (estimatedIds <= (double) maxRows * KEEP_ONE_IN) {
+            return lowestHashes(tableName, min, max, maxRows, seed);
+        }
+
+        IdSet ids = sampleCells(tableName, min, max, maxRows, seed, density);
+        if (ids.size() < maxRows) {
+            System.out.println("⚠️  Warning: " + tableName + " holds fewer ids than estimated;"
+                    + " reading its whole id range to sample " + maxRows + " rows");
+            return lowestHashes(tableName, min, max, maxRows, seed);
+        }
+        return ids;
+    }
+
+    private IdSet sampleCells(String tableName, long min, long max, int maxRows, long seed, double density)
+            throws SQLException {
+        IdSet ids = IdSet.create();
+        long cellWidth = Math.max(1, (long) Math.ceil(IDS_PER_CELL / density));
+        long cells = (max - min) / cellWidth + 1;
+
+        // Visit every cell once, in an order given by a seeded stride coprime with the cell count
+        SplittableRandom random = new SplittableRandom(seed);
+        long start = random.nextLong(cells);
+        long stride = cells == 1 ? 1 : 1 + random.nextLong(cells - 1);
+        while (gcd(stride, cells) != 1) {
+            stride = stride % (cells - 1) + 1;
+        }
+
+        long cell = start;
+        int found = 0;
+        try (PreparedStatement stmt = conn.prepareStatement(buildCellQuery(tableName))) {
+            for (long visited = 0; visited < cells && found < maxRows; visited += CELLS_PER_QUERY) {
+                for (int i = 0; i < CELLS_PER_QUERY; i++) {
+                    long lower = 1;
+                    long upper = 0;
+                    // Spare slots of the last query keep the empty range above
+                    if (visited + i < cells) {
+                        lower = min + cell * cellWidth;
+                        upper = Math.min(lower + cellWidth - 1, max);
+                        cell += stride;
+                        if (cell >= cells || cell < 0) {
+                            cell -= cells;
+                        }
+                    }
+                    stmt.setLong(i * 2 + 1, lower);
+                    stmt.setLong(i * 2 + 2, upper);
+                }
+
+                // Cells never overlap, so every id read is new to the sample
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next() && found < maxRows) {
+                        long id = rs.getLong(1);
+                        if (Long.compareUnsigned(hash(id, seed), KEEP_THRESHOLD) < 0) {
+                            ids.add(id);
+                            found++;
+                        }
+                    }
+                }
+            }
+        }
+        return ids;
+    }
+
+    // Bottom-k by hash: the same per-id hash decides, so it is as uniform as the Bernoulli pass
+    private IdSet lowestHashes(String tableName, long min, long max, int maxRows, long seed) throws SQLException {
+        long[] all = new long[1024];
+        int count = 0;
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT id FROM " + tableName + " WHERE id >= ? AND id <= ?")) {
+            stmt.setLong(1, min);
+            stmt.setLong(2, max);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    if (count == all.length) {
+                        all = Arrays.copyOf(all, count * 2);
+                    }
+                    all[count++] = rs.getLong(1);
+                }
+            }
+        }
+
+        IdSet ids = IdSet.create();
+        if (count <= maxRows) {
+            for (int i = 0; i < count; i++) {
+                ids.add(all[i]);
+            }
+            return ids;
+        }
+
+        // Flipping the sign bit makes signed order match unsigned hash order
+        long[] hashes = new long[count];
+        for (int i = 0; i < count; i++) {
+            hashes[i] = hash(all[i], seed) ^ Long.MIN_VALUE;
+        }
+        long[] sorted = hashes.clone();
+        Arrays.sort(sorted);
+        long cutoff = sorted[maxRows - 1];
+        int kept = 0;
+        for (int i = 0; i < count && kept < maxRows; i++) {
+            if (hashes[i] <= cutoff) {
+                ids.add(all[i]);
+                kept++;
+            }
+        }
+        return ids;
+    }
+
+    // Ids per unit of id range, measured from runs of consecutive ids after a few seeded points
+    private double estimateDensity(String tableName, long min, long max, long seed) throws SQLException {
+        SplittableRandom random = new SplittableRandom(~seed);
+        long ids = 0;
+        long width = 0;
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT MIN(id), MAX(id), COUNT(*) FROM (SELECT id FROM "
+                + tableName + " WHERE id >= ? AND id <= ? ORDER BY id LIMIT " + DENSITY_PROBE_IDS + ") run")) {
+            for (int i = 0; i < DENSITY_PROBES; i++) {
+                stmt.setLong(1, min + random.nextLong(max - min + 1));
+                stmt.setLong(2, max);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next() && rs.getLong(3) > 1) {
+                        ids += rs.getLong(3) - 1;
+                        width += rs.getLong(2) - rs.getLong(1);
+                    }
+                }
+            }
+        }
+        return width > 0 ? Math.min(1.0, (double) ids / width) : 1.0;
+    }
+
+    private static long hash(long id, long seed) {
+        return DeterministicHasher.mix64(seed + id * 0x9E3779B97F4A7C15L);
+    }
+
+    private static long gcd(long a, long b) {
+        while (b != 0) {
+            long t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+
+    private long[] findIdRange(String tableName, Integer windowDays) throws SQLException {
+        long min;
+        long max;
+
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT MIN(id), MAX(id) FROM " + tableName);
+                ResultSet rs = stmt.executeQuery()) {
+            if (!rs.next() || rs.getObject(1) == null) {
+                return null;
+            }
+            min = rs.getLong(1);
+            max = rs.getLong(2);
+        }
+
+        if (windowDays != null) {
+            // Assumes ids grow with created_at, as they do for append-only tables
+            try (PreparedStatement stmt = conn.prepareStatement("SELECT id FROM " + tableName
+                    + " WHERE created_at >= DATE_SUB(NOW(), INTERVAL ? DAY) ORDER BY created_at LIMIT 1")) {
+                stmt.setInt(1, windowDays);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (!rs.next()) {
+                        return null;
+                    }
+                    min = rs.getLong(1);
+                }
+            }
+        }
+
+        return new long[] { min, max };
+    }
+
+    private static String buildCellQuery(String tableName) {
+        StringBuilder query = new StringBuilder();
+        for (int i = 0; i < CELLS_PER_QUERY; i++) {
+            if (i > 0) {
+                query.append(" UNION ALL ");
+            }
+            query.append("SELECT id FROM ").append(tableName).append(" WHERE id >= ? AND id <= ?");
+        }
+        return query.toString();
+    }
+}
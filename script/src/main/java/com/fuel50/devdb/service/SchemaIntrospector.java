@@ -0,0 +1,164 @@
+package com.fuel50.devdb.service;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fuel50.devdb.model.SchemaMetadata;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Loads columns, primary keys and foreign keys for the whole source schema from
+ * INFORMATION_SCHEMA in two bulk queries. The result is cached on disk together with a
+ * SHA-256 of the schema definition, computed by the server, and reused as long as the
+ * checksum still matches.
+ */
+public class SchemaIntrospector {
+    public static final String CACHE_FILE = "schema-cache.json";
+
+    // Rows are joined in a fixed order on the server and only the SHA-256 comes back, so a
+    // cache hit costs one small round trip; swapping attributes between columns still changes it
+    private static final String COLUMN_DEFINITION = "CONCAT_WS(0x1F, TABLE_NAME, COLUMN_NAME, ORDINAL_POSITION, "
+            + "COLUMN_TYPE, IS_NULLABLE)";
+
+    private static final String KEY_DEFINITION = "CONCAT_WS(0x1F, TABLE_NAME, COLUMN_NAME, CONSTRAINT_NAME, "
+            + "ORDINAL_POSITION, IFNULL(REFERENCED_TABLE_NAME, ''), IFNULL(REFERENCED_COLUMN_NAME, ''))";
+
+    // A list cut short by group_concat_max_len no longer matches the summed row lengths
+    private static final String CHECKSUM_QUERY = "SELECT /*+ SET_VAR(group_concat_max_len = 1073741824) */ "
+            + "COALESCE(LENGTH(c.defs), 0) = c.expected AND COALESCE(LENGTH(k.defs), 0) = k.expected, "
+            + "SHA2(CONCAT_WS(0x1D, c.defs, k.defs), 256) FROM "
+            + definitions(COLUMN_DEFINITION, "COLUMNS", "TABLE_NAME, ORDINAL_POSITION") + " c CROSS JOIN "
+            + definitions(KEY_DEFINITION, "KEY_COLUMN_USAGE",
+                    "TABLE_NAME, CONSTRAINT_NAME, ORDINAL_POSITION, COLUMN_NAME") + " k";
+
+    private static final String COLUMNS_QUERY = "SELECT TABLE_NAME, COLUMN_NAME, DATA_TYPE, COLUMN_TYPE, "
+            + "IS_NULLABLE, NUMERIC_SCALE, CHARACTER_MAXIMUM_LENGTH "
+            + "FROM information_schema.COLUMNS WHERE TABLE_SCHEMA = ? "
+            + "ORDER BY TABLE_NAME, ORDINAL_POSITION";
+
+    private static final String KEYS_QUERY = "SELECT TABLE_NAME, COLUMN_NAME, CONSTRAINT_NAME, "
+            + "REFERENCED_TABLE_NAME, REFERENCED_COLUMN_NAME "
+            + "FROM information_schema.KEY_COLUMN_USAGE WHERE TABLE_SCHEMA = ? "
+            + "AND (CONSTRAINT_NAME = 'PRIMARY' OR REFERENCED_TABLE_NAME IS NOT NULL) "
+            + "ORDER BY TABLE_NAME, CONSTRAINT_NAME, ORDINAL_POSITION";
+
+    private final Connection conn;
+    private final ObjectMapper mapper = new ObjectMapper()
+            .enable(SerializationFeature.INDENT_OUTPUT)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    public SchemaIntrospector(Connection conn) {
+        this.conn = conn;
+    }
+
+    /**
+     * Returns the schema metadata, reading it from {@code cacheDir} when the cached checksum
+     * matches the live schema and introspecting (then refreshing the cache) otherwise.
+     */
+    public SchemaMetadata load(Path cacheDir) throws SQLException, IOException {
+        String schema = conn.getCatalog();
+        if (schema == null || schema.isEmpty()) {
+            throw new SQLException("The source connection has no database selected;"
+                    + " name it in the JDBC URL, e.g. jdbc:mysql://host:3306/fuel50_db");
+        }
+        String checksum = computeChecksum(schema);
+        Path cacheFile = cacheDir.resolve(CACHE_FILE);
+
+        if (Files.exists(cacheFile)) {
+            try {
+                SchemaMetadata cached = mapper.readValue(cacheFile.toFile(), SchemaMetadata.class);
+                if (checksum != null && schema.equals(cached.getSchema()) && checksum.equals(cached.getChecksum())) {
+                    System.out.println("   Using cached schema metadata for " + schema);
+                    return cached;
+                }
+            } catch (IOException e) {
+                System.out.println("   ⚠️  Ignoring unreadable schema cache: " + e.getMessage());
+            }
+        }
+
+        System.out.println("   Introspecting schema " + schema);
+        SchemaMetadata metadata = introspect(schema);
+        metadata.setChecksum(checksum);
+        mapper.writeValue(cacheFile.toFile(), metadata);
+        return metadata;
+    }
+
+    private static String definitions(String row, String table, String order) {
+        return "(SELECT GROUP_CONCAT(" + row + " ORDER BY " + order + " SEPARATOR 0x1E) AS defs, "
+                + "COALESCE(SUM(LENGTH(" + row + ") + 1) - 1, 0) AS expected "
+                + "FROM information_schema." + table + " WHERE TABLE_SCHEMA = ?)";
+    }
+
+    /** Returns the schema definition's checksum, or null when it is too large to hash on the server. */
+    private String computeChecksum(String schema) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(CHECKSUM_QUERY)) {
+            stmt.setString(1, schema);
+            stmt.setString(2, schema);
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                if (!rs.getBoolean(1)) {
+                    System.out.println("   ⚠️  Schema definition exceeds group_concat_max_len, not caching it");
+                    return null;
+                }
+                return rs.getString(2);
+            }
+        }
+    }
+
+    private SchemaMetadata introspect(String schema) throws SQLException {
+        SchemaMetadata metadata = new SchemaMetadata();
+        metadata.setSchema(schema);
+
+        try (PreparedStatement stmt = conn.prepareStatement(COLUMNS_QUERY)) {
+            stmt.setString(1, schema);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    SchemaMetadata.ColumnMetadata column = new SchemaMetadata.ColumnMetadata();
+                    column.setName(rs.getString("COLUMN_NAME"));
+                    column.setDataType(rs.getString("DATA_TYPE"));
+                    column.setColumnType(rs.getString("COLUMN_TYPE"));
+                    column.setNullable("YES".equals(rs.getString("IS_NULLABLE")));
+                    column.setNumericScale(rs.getObject("NUMERIC_SCALE", Integer.class));
+                    column.setMaxLength(rs.getObject("CHARACTER_MAXIMUM_LENGTH", Long.class));
+
+                    table(metadata, rs.getString("TABLE_NAME")).getColumns().add(column);
+                }
+            }
+        }
+
+        try (PreparedStatement stmt = conn.prepareStatement(KEYS_QUERY)) {
+            stmt.setString(1, schema);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    SchemaMetadata.TableMetadata table = table(metadata, rs.getString("TABLE_NAME"));
+
+                    if ("PRIMARY".equals(rs.getString("CONSTRAINT_NAME"))) {
+                        table.getPrimaryKey().add(rs.getString("COLUMN_NAME"));
+                    } else {
+                        SchemaMetadata.ForeignKeyMetadata fk = new SchemaMetadata.ForeignKeyMetadata();
+                        fk.setColumn(rs.getString("COLUMN_NAME"));
+                        fk.setReferencedTable(rs.getString("REFERENCED_TABLE_NAME"));
+                        fk.setReferencedColumn(rs.getString("REFERENCED_COLUMN_NAME"));
+                        table.getForeignKeys().add(fk);
+                    }
+                }
+            }
+        }
+
+        return metadata;
+    }
+
+    private static SchemaMetadata.TableMetadata table(SchemaMetadata metadata, String tableName) {
+        return metadata.getTables().computeIfAbsent(tableName, name -> {
+            SchemaMetadata.TableMetadata table = new SchemaMetadata.TableMetadata();
+            table.setName(name);
+            return table;
+        });
+    }
+}
@@ -0,0 +1,178 @@
+package com.fuel50.devdb.service;
+
+import com.fuel50.devdb.model.TableSpec;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Runs per-table selection in foreign key dependency order on a bounded worker pool.
+ * A table is submitted as soon as every table it references has finished, and each
+ * worker uses its own connection.
+ */
+public class SelectionScheduler {
+
+    @FunctionalInterface
+    public interface TableTask {
+        void run(String tableName, Connection conn) throws SQLException;
+    }
+
+    private final Map<String, TableSpec> tables;
+    private final List<String> orderedTables;
+    private final ConnectionFactory connectionFactory;
+    private final int parallelism;
+
+    /**
+     * @param orderedTables table names in processing order, used to break ties between ready tables
+     */
+    public SelectionScheduler(Map<String, TableSpec> tables, List<String> orderedTables,
+            ConnectionFactory connectionFactory, int parallelism) {
+        this.tables = tables;
+        this.orderedTables = orderedTables;
+        this.connectionFactory = connectionFactory;
+        this.parallelism = parallelism;
+    }
+
+    public void run(TableTask task) throws SQLException {
+        Map<String, Set<String>> parents = buildDependencies();
+        Map<String, List<String>> children = new HashMap<>();
+        Map<String, Integer> pendingParents = new HashMap<>();
+
+        for (String tableName : orderedTables) {
+            pendingParents.put(tableName, parents.get(tableName).size());
+            for (String parent : parents.get(tableName)) {
+                children.computeIfAbsent(parent, k -> new ArrayList<>()).add(tableName);
+            }
+        }
+
+        int workers = Math.max(1, Math.min(parallelism, orderedTables.size()));
+        BlockingQueue<Connection> connections = new ArrayBlockingQueue<>(workers);
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        CompletionService<String> completion = new ExecutorCompletionService<>(executor);
+
+        try {
+            for (int i = 0; i < workers; i++) {
+                connections.add(connectionFactory.open());
+            }
+
+            int submitted = 0;
+            int running = 0;
+            for (String tableName : orderedTables) {
+                if (pendingParents.get(tableName) == 0) {
+                    submit(completion, connections, task, tableName);
+                    submitted++;
+                    running++;
+                }
+            }
+
+            while (running > 0 || submitted < orderedTables.size()) {
+                while (running > 0) {
+                    String finished = await(completion);
+                    running--;
+
+                    for (String child : children.getOrDefault(finished, List.of())) {
+                        int remaining = pendingParents.merge(child, -1, Integer::sum);
+                        if (remaining == 0) {
+                            submit(completion, connections, task, child);
+                            submitted++;
+                            running++;
+                        }
+                    }
+                }
+
+                // Only a reference cycle is left; like the sequential run, take its tables in processing order
+                if (submitted < orderedTables.size()) {
+                    String next = firstBlocked(pendingParents);
+                    System.out.println("⚠️  Warning: Cyclic foreign key dependencies; selecting " + next
+                            + " before the tables it references");
+                    pendingParents.put(next, 0);
+                    submit(completion, connections, task, next);
+                    submitted++;
+                    running++;
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+            awaitWorkers(executor);
+            for (Connection conn : connections) {
+                try {
+                    conn.close();
+                } catch (SQLException e) {
+                    System.err.println("⚠️  Warning: Failed to close worker connection: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private String firstBlocked(Map<String, Integer> pendingParents) {
+        for (String tableName : orderedTables) {
+            if (pendingParents.get(tableName) > 0) {
+                return tableName;
+            }
+        }
+        throw new IllegalStateException("No blocked table left to schedule");
+    }
+
+    private void awaitWorkers(ExecutorService executor) {
+        try {
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Map<String, Set<String>> buildDependencies() {
+        Map<String, Set<String>> parents = new HashMap<>();
+
+        for (String tableName : orderedTables) {
+            Set<String> tableParents = new LinkedHashSet<>();
+            TableSpec table = tables.get(tableName);
+
+            if (table.getFk() != null && table.getFk().getReferences() != null) {
+                for (TableSpec.ForeignKeyReference fkRef : table.getFk().getReferences()) {
+                    String parent = fkRef.getTable();
+                    // Self references and tables outside the spec don't block scheduling
+                    if (parent != null && !parent.equals(tableName) && tables.containsKey(parent)) {
+                        tableParents.add(parent);
+                    }
+                }
+            }
+
+            parents.put(tableName, tableParents);
+        }
+
+        return parents;
+    }
+
+    private void submit(CompletionService<String> completion, BlockingQueue<Connection> connections,
+            TableTask task, String tableName) {
+        completion.submit(() -> {
+            Connection conn = connections.take();
+            try {
+                task.run(tableName, conn);
+            } finally {
+                connections.put(conn);
+            }
+            return tableName;
+        });
+    }
+
+    private String await(CompletionService<String> completion) throws SQLException {
+        try {
+            return completion.take().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while selecting table data", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new SQLException("Table selection failed", cause);
+        }
+    }
+}
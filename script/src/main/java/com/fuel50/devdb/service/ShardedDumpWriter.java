@@ -0,0 +1,167 @@
+package com.fuel50.devdb.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Writes one table's part of a sharded SQL dump: {@code <stem>.0001.sql}, then further
+ * numbered parts whenever the current one would pass the size limit. Parts only break
+ * between statements and repeat the lines printed before the table began, so each one can
+ * be replayed on its own. Every part is hashed as it is written and recorded as a
+ * {@link DumpShard}. Nothing is created until something is written.
+ */
+public class ShardedDumpWriter implements DumpWriter {
+    private final Path shardDir;
+    private final String stem;
+    private final String table;
+    private final int fkLevel;
+    private final DumpCompression compression;
+    private final long maxFileBytes;
+    private final long maxStatementBytes;
+    private final int maxStatementRows;
+    private final List<String> preamble = new ArrayList<>();
+    private final List<DumpShard> shards = new ArrayList<>();
+
+    private SqlDumpWriter part;
+    private MessageDigest digest;
+    private String partFile;
+    private long partBytes;
+    private long partRows;
+    private String tableName;
+    private List<String> columnNames;
+    private String upsertClause;
+    private long uncompressedBytes;
+    private long compressedBytes;
+    private long streamNanos;
+
+    /**
+     * @param table the table the rows belong to, null for a file of plain statements
+     * @param maxFileBytes approximate size of a part before compression; 0 keeps one part
+     */
+    public ShardedDumpWriter(Path shardDir, String stem, String table, int fkLevel, DumpCompression compression,
+            long maxFileBytes, long maxStatementBytes, int maxStatementRows) {
+        this.shardDir = shardDir;
+        this.stem = stem;
+        this.table = table;
+        this.fkLevel = fkLevel;
+        this.compression = compression;
+        this.maxFileBytes = maxFileBytes;
+        this.maxStatementBytes = maxStatementBytes;
+        this.maxStatementRows = maxStatementRows;
+    }
+
+    @Override
+    public void println(String line) throws IOException {
+        if (columnNames == null) {
+            preamble.add(line);
+        }
+        openPart().println(line);
+    }
+
+    @Override
+    public void println() throws IOException {
+        println("");
+    }
+
+    @Override
+    public void beginTable(String tableName, List<String> columnNames, String upsertClause) throws IOException {
+        this.tableName = tableName;
+        this.columnNames = columnNames;
+        this.upsertClause = upsertClause;
+        openPart().beginTable(tableName, columnNames, upsertClause);
+    }
+
+    @Override
+    public void writeRow(byte[] row) throws IOException {
+        if (maxFileBytes > 0 && partRows > 0 && partBytes + row.length > maxFileBytes) {
+            closePart();
+            for (String line : preamble) {
+                openPart().println(line);
+            }
+            openPart().beginTable(tableName, columnNames, upsertClause);
+        }
+        openPart().writeRow(row);
+        // Separators and statement headers are left out, so parts come out slightly over the limit
+        partBytes += row.length;
+        partRows++;
+    }
+
+    @Override
+    public void endTable() throws IOException {
+        if (part != null) {
+            part.endTable();
+        }
+        tableName = null;
+    }
+
+    private SqlDumpWriter openPart() throws IOException {
+        if (part != null) {
+            return part;
+        }
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        partFile = String.format("%s.%04d.sql%s", stem, shards.size() + 1, compression.getExtension());
+        OutputStream file = new DigestOutputStream(Files.newOutputStream(shardDir.resolve(partFile)), digest);
+        part = new SqlDumpWriter(file, compression, maxStatementBytes, maxStatementRows);
+        partBytes = 0;
+        partRows = 0;
+        return part;
+    }
+
+    private void closePart() throws IOException {
+        if (part == null) {
+            return;
+        }
+        part.close();
+        uncompressedBytes += part.getUncompressedBytes();
+        compressedBytes += part.getCompressedBytes();
+        streamNanos += part.getStreamNanos();
+
+        DumpShard shard = new DumpShard();
+        shard.setFile(shardDir.getFileName() + "/" + partFile);
+        shard.setTable(table);
+        shard.setPart(shards.size() + 1);
+        shard.setFkLevel(fkLevel);
+        shard.setRows(partRows);
+        shard.setBytes(part.getCompressedBytes());
+        shard.setSha256(HexFormat.of().formatHex(digest.digest()));
+        shards.add(shard);
+        part = null;
+    }
+
+    /** The parts written so far; complete once the writer is closed. */
+    public List<DumpShard> getShards() {
+        return shards;
+    }
+
+    @Override
+    public long getUncompressedBytes() {
+        return uncompressedBytes + (part != null ? part.getUncompressedBytes() : 0);
+    }
+
+    @Override
+    public long getCompressedBytes() {
+        return compressedBytes + (part != null ? part.getCompressedBytes() : 0);
+    }
+
+    @Override
+    public long getStreamNanos() {
+        return streamNanos + (part != null ? part.getStreamNanos() : 0);
+    }
+
+    @Override
+    public void close() throws IOException {
+        closePart();
+    }
+}
@@ -0,0 +1,124 @@
+package com.fuel50.devdb.service;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * {@link IdSet} backed by a sorted, de-duplicated {@code long[]} (8 bytes per id).
+ * New ids are appended to an unsorted tail which is merged into the sorted run lazily,
+ * so bulk loading from a result set stays O(n log n) overall.
+ */
+public class SortedLongIdSet implements IdSet {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private long[] sorted = new long[0];
+    private int sortedSize;
+
+    private long[] pending = new long[INITIAL_CAPACITY];
+    private int pendingSize;
+
+    private boolean frozen;
+
+    @Override
+    public void add(long id) {
+        if (frozen) {
+            throw new IllegalStateException("Cannot add to a frozen IdSet");
+        }
+        if (pendingSize == pending.length) {
+            // Merge once the tail is as large as the sorted run to keep the amortized cost low
+            if (pendingSize >= Math.max(INITIAL_CAPACITY, sortedSize)) {
+                compact();
+            } else {
+                pending = Arrays.copyOf(pending, pending.length * 2);
+            }
+        }
+        pending[pendingSize++] = id;
+    }
+
+    @Override
+    public void addAll(IdSet other) {
+        other.forEach(this::add);
+    }
+
+    @Override
+    public boolean contains(long id) {
+        compact();
+        return Arrays.binarySearch(sorted, 0, sortedSize, id) >= 0;
+    }
+
+    @Override
+    public int size() {
+        compact();
+        return sortedSize;
+    }
+
+    @Override
+    public long get(int index) {
+        compact();
+        if (index < 0 || index >= sortedSize) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + sortedSize);
+        }
+        return sorted[index];
+    }
+
+    @Override
+    public IdSet slice(int fromIndex, int toIndex) {
+        compact();
+        if (fromIndex < 0 || toIndex > sortedSize || fromIndex > toIndex) {
+            throw new IndexOutOfBoundsException("Slice [" + fromIndex + ", " + toIndex + ") out of bounds for size "
+                    + sortedSize);
+        }
+
+        SortedLongIdSet slice = new SortedLongIdSet();
+        slice.sorted = Arrays.copyOfRange(sorted, fromIndex, toIndex);
+        slice.sortedSize = toIndex - fromIndex;
+        return slice.freeze();
+    }
+
+    @Override
+    public void forEach(LongConsumer action) {
+        compact();
+        for (int i = 0; i < sortedSize; i++) {
+            action.accept(sorted[i]);
+        }
+    }
+
+    @Override
+    public IdSet freeze() {
+        compact();
+        pending = new long[0];
+        frozen = true;
+        return this;
+    }
+
+    private void compact() {
+        if (pendingSize == 0) {
+            return;
+        }
+
+        Arrays.sort(pending, 0, pendingSize);
+
+        // Merge the sorted tail into the main run, dropping duplicates
+        long[] merged = new long[sortedSize + pendingSize];
+        int i = 0, j = 0, k = 0;
+        while (i < sortedSize || j < pendingSize) {
+            long next;
+            if (j >= pendingSize || (i < sortedSize && sorted[i] <= pending[j])) {
+                next = sorted[i++];
+            } else {
+                next = pending[j++];
+            }
+            if (k == 0 || merged[k - 1] != next) {
+                merged[k++] = next;
+            }
+        }
+
+        sorted = k == merged.length ? merged : Arrays.copyOf(merged, k);
+        sortedSize = k;
+
+        pendingSize = 0;
+        if (pending.length > INITIAL_CAPACITY && pending.length > sortedSize) {
+            pending = new long[INITIAL_CAPACITY];
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.fuel50.devdb.service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Streams a SQL dump as UTF-8 through a large buffer. Rows are appended to a multi-row
+ * INSERT as they arrive, and a new statement is started whenever the current one would
+ * pass the byte or row limit, so no statement outgrows the server's max_allowed_packet
+ * and nothing but the output buffer is held in memory. The bytes can be compressed on the
+ * way out, with the sizes on both sides of the compressor and the time spent in it metered.
+ */
+public class SqlDumpWriter implements DumpWriter {
+    public static final int DEFAULT_MAX_STATEMENT_BYTES = 4 * 1024 * 1024;
+    public static final int DEFAULT_MAX_STATEMENT_ROWS = 10000;
+
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final byte[] ROW_SEPARATOR = ",\n".getBytes(StandardCharsets.UTF_8);
+
+    private final OutputStream out;
+    private final MeteredOutputStream plain;
+    private final MeteredOutputStream compressed;
+    private final long maxStatementBytes;
+    private final int maxStatementRows;
+
+    private byte[] insertHeader;
+    private byte[] statementSuffix;
+    private long statementBytes;
+    private int statementRows;
+    private long statements;
+
+    public SqlDumpWriter(OutputStream stream, long maxStatementBytes, int maxStatementRows) throws IOException {
+        this(stream, DumpCompression.NONE, maxStatementBytes, maxStatementRows);
+    }
+
+    public SqlDumpWriter(OutputStream stream, DumpCompression compression, long maxStatementBytes,
+            int maxStatementRows) throws IOException {
+        this.compressed = new MeteredOutputStream(stream);
+        this.plain = new MeteredOutputStream(compression.compress(compressed));
+        this.out = new BufferedOutputStream(plain, BUFFER_SIZE);
+        this.maxStatementBytes = maxStatementBytes;
+        this.maxStatementRows = Math.max(1, maxStatementRows);
+    }
+
+    @Override
+    public void println(String line) throws IOException {
+        out.write(line.getBytes(StandardCharsets.UTF_8));
+        out.write('\n');
+    }
+
+    @Override
+    public void println() throws IOException {
+        out.write('\n');
+    }
+
+    /** Every statement of the table repeats the INSERT header and, when given, the upsert clause. */
+    @Override
+    public void beginTable(String tableName, List<String> columnNames, String upsertClause) throws IOException {
+        endStatement();
+        this.insertHeader = ("INSERT INTO " + tableName + " (" + String.join(", ", columnNames) + ") VALUES ")
+                .getBytes(StandardCharsets.UTF_8);
+        this.statementSuffix = (upsertClause != null ? "\n" + upsertClause + ";" : ";")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void writeRow(byte[] row) throws IOException {
+        if (statementRows > 0 && (statementRows >= maxStatementRows
+                || statementBytes + ROW_SEPARATOR.length + row.length + statementSuffix.length > maxStatementBytes)) {
+            endStatement();
+        }
+
+        if (statementRows == 0) {
+            out.write(insertHeader);
+            statementBytes = insertHeader.length;
+        } else {
+            out.write(ROW_SEPARATOR);
+            statementBytes += ROW_SEPARATOR.length;
+        }
+        out.write(row);
+        statementBytes += row.length;
+        statementRows++;
+    }
+
+    /** Terminates the open statement, if any, of the current table. */
+    @Override
+    public void endTable() throws IOException {
+        endStatement();
+        insertHeader = null;
+        statementSuffix = null;
+    }
+
+    private void endStatement() throws IOException {
+        if (statementRows > 0) {
+            out.write(statementSuffix);
+            out.write('\n');
+            statements++;
+        }
+        statementRows = 0;
+        statementBytes = 0;
+    }
+
+    public long getStatementCount() {
+        return statements;
+    }
+
+    @Override
+    public long getUncompressedBytes() {
+        return plain.getBytes();
+    }
+
+    @Override
+    public long getCompressedBytes() {
+        return compressed.getBytes();
+    }
+
+    @Override
+    public long getStreamNanos() {
+        return plain.getNanos();
+    }
+
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        endTable();
+        out.close();
+    }
+}
@@ -0,0 +1,84 @@
+package com.fuel50.devdb.service;
+
+import java.util.List;
+
+/**
+ * Per-table details collected during generation and written to manifest.json.
+ */
+public class TableReport {
+    private String timeWindowPlan;
+    private Long timeWindowMinId;
+    private List<PartitionTiming> partitions;
+
+    public String getTimeWindowPlan() {
+        return timeWindowPlan;
+    }
+
+    public void setTimeWindowPlan(String timeWindowPlan) {
+        this.timeWindowPlan = timeWindowPlan;
+    }
+
+    public Long getTimeWindowMinId() {
+        return timeWindowMinId;
+    }
+
+    public void setTimeWindowMinId(Long timeWindowMinId) {
+        this.timeWindowMinId = timeWindowMinId;
+    }
+
+    public List<PartitionTiming> getPartitions() {
+        return partitions;
+    }
+
+    public void setPartitions(List<PartitionTiming> partitions) {
+        this.partitions = partitions;
+    }
+
+    public static class PartitionTiming {
+        private int index;
+        private Long firstId;
+        private Long lastId;
+        private long rows;
+        private long millis;
+
+        public int getIndex() {
+            return index;
+        }
+
+        public void setIndex(int index) {
+            this.index = index;
+        }
+
+        public Long getFirstId() {
+            return firstId;
+        }
+
+        public void setFirstId(Long firstId) {
+            this.firstId = firstId;
+        }
+
+        public Long getLastId() {
+            return lastId;
+        }
+
+        public void setLastId(Long lastId) {
+            this.lastId = lastId;
+        }
+
+        public long getRows() {
+            return rows;
+        }
+
+        public void setRows(long rows) {
+            this.rows = rows;
+        }
+
+        public long getMillis() {
+            return millis;
+        }
+
+        public void setMillis(long millis) {
+            this.millis = millis;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.fuel50.devdb.service;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Session temporary table holding an {@link IdSet}, so large id sets can be joined
+ * server-side instead of being shipped as IN lists. Dropped on close.
+ */
+public class TempIdTable implements AutoCloseable {
+    private final Connection conn;
+    private final String name;
+
+    private TempIdTable(Connection conn, String name) {
+        this.conn = conn;
+        this.name = name;
+    }
+
+    public static TempIdTable load(Connection conn, String name, IdSet ids, int batchSize) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP TEMPORARY TABLE IF EXISTS " + name);
+            stmt.execute("CREATE TEMPORARY TABLE " + name + " (id BIGINT NOT NULL PRIMARY KEY)");
+        }
+
+        TempIdTable table = new TempIdTable(conn, name);
+        try {
+            table.insert(ids, batchSize);
+        } catch (SQLException e) {
+            table.close();
+            throw e;
+        }
+        return table;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    private void insert(IdSet ids, int batchSize) throws SQLException {
+        int total = ids.size();
+        int fullBatches = total / batchSize;
+        int remainder = total % batchSize;
+
+        // Ids arrive sorted and unique, so every batch appends to the end of the primary key
+        if (fullBatches > 0) {
+            try (PreparedStatement stmt = conn.prepareStatement(buildInsert(batchSize))) {
+                for (int batch = 0; batch < fullBatches; batch++) {
+                    bind(stmt, ids, batch * batchSize, batchSize);
+                    stmt.executeUpdate();
+                }
+            }
+        }
+
+        if (remainder > 0) {
+            try (PreparedStatement stmt = conn.prepareStatement(buildInsert(remainder))) {
+                bind(stmt, ids, fullBatches * batchSize, remainder);
+                stmt.executeUpdate();
+            }
+        }
+    }
+
+    private void bind(PreparedStatement stmt, IdSet ids, int offset, int length) throws SQLException {
+        for (int i = 0; i < length; i++) {
+            stmt.setLong(i + 1, ids.get(offset + i));
+        }
+    }
+
+    private String buildInsert(int rows) {
+        StringBuilder insert = new StringBuilder("INSERT INTO " + name + " (id) VALUES ");
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                insert.append(", ");
+            }
+            insert.append("(?)");
+        }
+        return insert.toString();
+    }
+
+    @Override
+    public void close() throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP TEMPORARY TABLE IF EXISTS " + name);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.fuel50.devdb.service;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+/**
+ * Translates a created_at time window into a primary key lower bound for append-only
+ * tables, where ids and created_at grow together. The boundary is found by binary search
+ * over the id range using point seeks on the clustered index, so the window can then be
+ * read as a plain {@code id >= ?} range instead of through the created_at index.
+ */
+public class TimeWindowResolver {
+    private final Connection conn;
+
+    public TimeWindowResolver(Connection conn) {
+        this.conn = conn;
+    }
+
+    /**
+     * Returns the first id created within the last {@code windowDays} days, or null when
+     * no row falls inside the window.
+     */
+    public Long findFirstIdSince(String tableName, int windowDays) throws SQLException {
+        Timestamp cutoff;
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT TIMESTAMPADD(DAY, ?, NOW())")) {
+            stmt.setInt(1, -windowDays);
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                cutoff = rs.getTimestamp(1);
+            }
+        }
+
+        long lo;
+        long hi;
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT MIN(id), MAX(id) FROM " + tableName);
+                ResultSet rs = stmt.executeQuery()) {
+            if (!rs.next() || rs.getObject(1) == null) {
+                return null;
+            }
+            lo = rs.getLong(1);
+            hi = rs.getLong(2);
+        }
+
+        Long boundary = null;
+
+        try (PreparedStatement probe = conn.prepareStatement(
+                "SELECT id, created_at FROM " + tableName + " WHERE id >= ? ORDER BY id LIMIT 1")) {
+            while (lo <= hi) {
+                long mid = lo + (hi - lo) / 2;
+                probe.setLong(1, mid);
+
+                try (ResultSet rs = probe.executeQuery()) {
+                    if (!rs.next()) {
+                        // Tail rows deleted since MAX(id) was read
+                        hi = mid - 1;
+                        continue;
+                    }
+                    long id = rs.getLong(1);
+                    Timestamp createdAt = rs.getTimestamp(2);
+
+                    if (createdAt != null && !createdAt.before(cutoff)) {
+                        boundary = id;
+                        hi = mid - 1;
+                    } else {
+                        lo = id + 1;
+                    }
+                }
+            }
+        }
+
+        return boundary;
+    }
+}
@@ -0,0 +1,80 @@
+package com.fuel50.devdb.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded, concurrent LRU cache of derived values for one column, keyed by the row's
+ * deterministic key value. It is split into stripes, each guarded by its own lock, so
+ * concurrent writers for different keys rarely contend.
+ */
+public class TransformCache {
+    private static final int STRIPES = 16;
+
+    private final Stripe[] stripes;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private static final class Stripe extends LinkedHashMap<Object, Object> {
+        private static final long serialVersionUID = 1L;
+
+        private final int capacity;
+
+        Stripe(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Object, Object> eldest) {
+            return size() > capacity;
+        }
+    }
+
+    public TransformCache(int capacity) {
+        int stripeCount = Math.max(1, Math.min(STRIPES, capacity));
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            // Spread the remainder so the stripes add up to the configured capacity
+            stripes[i] = new Stripe(capacity / stripeCount + (i < capacity % stripeCount ? 1 : 0));
+        }
+    }
+
+    /** Returns the cached value for {@code key}, or null after counting a miss. */
+    public Object get(Object key) {
+        Stripe stripe = stripeFor(key);
+        synchronized (stripe) {
+            Object cached = stripe.get(key);
+            if (cached != null) {
+                hits.increment();
+                return cached;
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    public void put(Object key, Object value) {
+        if (value == null) {
+            return;
+        }
+        Stripe stripe = stripeFor(key);
+        synchronized (stripe) {
+            stripe.put(key, value);
+        }
+    }
+
+    private Stripe stripeFor(Object key) {
+        int h = key.hashCode();
+        return stripes[((h ^ (h >>> 16)) & 0x7fffffff) % stripes.length];
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+}
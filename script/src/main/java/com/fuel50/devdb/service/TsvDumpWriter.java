@@ -0,0 +1,109 @@
+package com.fuel50.devdb.service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Writes each table as a tab-separated file that MySQL's {@code LOAD DATA} reads with its
+ * default escaping, plus a control script of {@code LOAD DATA LOCAL INFILE} statements
+ * (and anything else printed) that loads them in order. Data file paths in the script are
+ * relative to the script's directory.
+ */
+public class TsvDumpWriter implements DumpWriter {
+    public static final String DATA_DIR = "lightweight-tsv";
+
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final Path dataDir;
+    private final DumpCompression compression;
+    private final Writer script;
+
+    private OutputStream table;
+    private MeteredOutputStream plain;
+    private MeteredOutputStream compressed;
+    private long uncompressedBytes;
+    private long compressedBytes;
+    private long streamNanos;
+
+    public TsvDumpWriter(Path scriptFile, DumpCompression compression) throws IOException {
+        this.dataDir = scriptFile.resolveSibling(DATA_DIR);
+        this.compression = compression;
+        Files.createDirectories(dataDir);
+        this.script = Files.newBufferedWriter(scriptFile, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void println(String line) throws IOException {
+        script.write(line);
+        script.write('\n');
+    }
+
+    @Override
+    public void println() throws IOException {
+        script.write('\n');
+    }
+
+    @Override
+    public void beginTable(String tableName, List<String> columnNames, String upsertClause) throws IOException {
+        // Upsert deltas are rejected by LightweightGenerator.validateOptions, so no clause reaches here
+        endTable();
+
+        String fileName = tableName + ".tsv" + compression.getExtension();
+        compressed = new MeteredOutputStream(Files.newOutputStream(dataDir.resolve(fileName)));
+        plain = new MeteredOutputStream(compression.compress(compressed));
+        table = new BufferedOutputStream(plain, BUFFER_SIZE);
+
+        // Compressed files are only readable through the restorer, which inflates them itself
+        println("LOAD DATA LOCAL INFILE '" + DATA_DIR + "/" + fileName + "' INTO TABLE " + tableName
+                + " CHARACTER SET utf8mb4 FIELDS TERMINATED BY '\\t' ESCAPED BY '\\\\' LINES TERMINATED BY '\\n' ("
+                + String.join(", ", columnNames) + ");");
+    }
+
+    @Override
+    public void writeRow(byte[] row) throws IOException {
+        table.write(row);
+        table.write('\n');
+    }
+
+    @Override
+    public void endTable() throws IOException {
+        if (table == null) {
+            return;
+        }
+        table.close();
+        uncompressedBytes += plain.getBytes();
+        compressedBytes += compressed.getBytes();
+        streamNanos += plain.getNanos();
+        table = null;
+    }
+
+    @Override
+    public long getUncompressedBytes() {
+        return uncompressedBytes + (plain != null && table != null ? plain.getBytes() : 0);
+    }
+
+    @Override
+    public long getCompressedBytes() {
+        return compressedBytes + (compressed != null && table != null ? compressed.getBytes() : 0);
+    }
+
+    @Override
+    public long getStreamNanos() {
+        return streamNanos + (plain != null && table != null ? plain.getNanos() : 0);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            endTable();
+        } finally {
+            script.close();
+        }
+    }
+}
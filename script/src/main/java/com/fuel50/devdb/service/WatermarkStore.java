@@ -0,0 +1,110 @@
+package com.fuel50.devdb.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Persists per-table watermarks and the selected ids of the last run next to manifest.json,
+ * so the next incremental run can extract only rows that changed or were newly selected.
+ */
+public class WatermarkStore {
+    public static final String WATERMARK_FILE = "watermarks.json";
+    private static final String IDS_DIR = "selected-ids";
+
+    public static class TableWatermark {
+        private String column;
+        private String maxValue;
+        private Long maxId;
+
+        public String getColumn() {
+            return column;
+        }
+
+        public void setColumn(String column) {
+            this.column = column;
+        }
+
+        public String getMaxValue() {
+            return maxValue;
+        }
+
+        public void setMaxValue(String maxValue) {
+            this.maxValue = maxValue;
+        }
+
+        public Long getMaxId() {
+            return maxId;
+        }
+
+        public void setMaxId(Long maxId) {
+            this.maxId = maxId;
+        }
+    }
+
+    private final Path outputPath;
+    private final ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    public WatermarkStore(Path outputPath) {
+        this.outputPath = outputPath;
+    }
+
+    public boolean exists() {
+        return Files.exists(outputPath.resolve(WATERMARK_FILE));
+    }
+
+    public Map<String, TableWatermark> load() throws IOException {
+        return mapper.readValue(outputPath.resolve(WATERMARK_FILE).toFile(),
+                new TypeReference<Map<String, TableWatermark>>() {
+                });
+    }
+
+    public void save(Map<String, TableWatermark> watermarks) throws IOException {
+        mapper.writeValue(outputPath.resolve(WATERMARK_FILE).toFile(), new TreeMap<>(watermarks));
+    }
+
+    /** Returns the ids selected for the table in the last run, or null when none were saved. */
+    public IdSet loadIds(String tableName) throws IOException {
+        Path file = outputPath.resolve(IDS_DIR).resolve(tableName + ".ids");
+        if (!Files.exists(file)) {
+            return null;
+        }
+
+        IdSet ids = IdSet.create();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            long count = in.readLong();
+            for (long i = 0; i < count; i++) {
+                ids.add(in.readLong());
+            }
+        }
+        return ids.freeze();
+    }
+
+    public void saveIds(String tableName, IdSet ids) throws IOException {
+        Path dir = outputPath.resolve(IDS_DIR);
+        Files.createDirectories(dir);
+
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(dir.resolve(tableName + ".ids"))))) {
+            out.writeLong(ids.size());
+            IOException[] failure = new IOException[1];
+            ids.forEach(id -> {
+                if (failure[0] == null) {
+                    try {
+                        out.writeLong(id);
+                    } catch (IOException e) {
+                        failure[0] = e;
+                    }
+                }
+            });
+            if (failure[0] != null) {
+                throw failure[0];
+            }
+        }
+    }
+}
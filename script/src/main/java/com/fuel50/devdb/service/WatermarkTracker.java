@@ -0,0 +1,34 @@
+package com.fuel50.devdb.service;
+
+import java.sql.Timestamp;
+
+/**
+ * Tracks the highest id and watermark column value seen while extracting a table.
+ * Safe to update from several partition workers.
+ */
+public class WatermarkTracker {
+    private Long maxId;
+    private Timestamp maxValue;
+
+    public WatermarkTracker(Long maxId, Timestamp maxValue) {
+        this.maxId = maxId;
+        this.maxValue = maxValue;
+    }
+
+    public synchronized void observe(long id, Timestamp value) {
+        if (maxId == null || id > maxId) {
+            maxId = id;
+        }
+        if (value != null && (maxValue == null || value.after(maxValue))) {
+            maxValue = value;
+        }
+    }
+
+    public synchronized Long getMaxId() {
+        return maxId;
+    }
+
+    public synchronized Timestamp getMaxValue() {
+        return maxValue;
+    }
+}
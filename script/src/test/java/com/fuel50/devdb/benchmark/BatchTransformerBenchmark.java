@@ -0,0 +1,183 @@
+package com.fuel50.devdb.benchmark;
+
+import com.fuel50.devdb.masking.TransformRegistry;
+import com.fuel50.devdb.model.ColumnSpec;
+import com.fuel50.devdb.model.DatabaseSpec;
+import com.fuel50.devdb.model.SchemaMetadata;
+import com.fuel50.devdb.model.TableSpec;
+import com.fuel50.devdb.service.BatchTransformer;
+import com.fuel50.devdb.service.ColumnTransformPlan;
+import com.fuel50.devdb.service.ColumnTransformPlanner;
+import com.fuel50.devdb.service.DeterministicHasher;
+import com.fuel50.devdb.service.PartitionedExtractor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Masking a synthetic users table end to end, one cell at a time inside the read loop
+ * against {@link BatchTransformer} batches on a fork-join pool. The table defaults to a
+ * million rows; {@code -p tableRows=10000000} gives the 10M-row run, which needs MySQL
+ * (see {@link BenchmarkDatabase}) or a large heap.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class BatchTransformerBenchmark {
+    private static final String[] MASKED_COLUMNS = { "username", "email", "password_hash", "address" };
+
+    @Param({ "1000000" })
+    public int tableRows;
+
+    @Param({ "4096" })
+    public int batchSize;
+
+    private Connection conn;
+    private ForkJoinPool pool;
+    private ColumnTransformPlanner planner;
+    private TableSpec table;
+    private SchemaMetadata.TableMetadata metadata;
+    private ColumnTransformPlan plan;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        conn = BenchmarkDatabase.open();
+        BenchmarkDatabase.createTable(conn, "bench_users",
+                "username VARCHAR(64), email VARCHAR(128), password_hash VARCHAR(128), address VARCHAR(255)",
+                tableRows, (insert, id) -> {
+                    insert.setString(2, "user" + id);
+                    insert.setString(3, "user" + id + "@example.com");
+                    insert.setString(4, "$2b$10$" + Long.toHexString(id * 0x9E3779B97F4A7C15L));
+                    insert.setString(5, id + " Main Street, Wellington");
+                });
+
+        pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        DatabaseSpec.MaskingDefaults masking = new DatabaseSpec.MaskingDefaults();
+        masking.setDeterministicSalt("benchmark");
+        masking.setEmailDomain("dev.local");
+        planner = new ColumnTransformPlanner(TransformRegistry.load(), masking,
+                new DeterministicHasher(DeterministicHasher.Algorithm.SHA256, "benchmark"),
+                new DeterministicHasher(DeterministicHasher.Algorithm.SHA256, "benchmark"));
+        table = usersSpec();
+        metadata = usersMetadata();
+    }
+
+    // A fresh plan per iteration, so no run reads values cached by the one before
+    @Setup(Level.Iteration)
+    public void compilePlan() {
+        plan = planner.plan("bench_users", table, metadata);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        pool.shutdown();
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP TABLE bench_users");
+        }
+        conn.close();
+    }
+
+    @Benchmark
+    public long rowByRow() throws SQLException {
+        long[] bytes = new long[1];
+        forEachRow(rs -> bytes[0] += plan.formatRow(rs).length);
+        return bytes[0];
+    }
+
+    @Benchmark
+    public long batched() throws SQLException {
+        long[] bytes = new long[1];
+        BatchTransformer batch = new BatchTransformer(plan, batchSize, pool, row -> bytes[0] += row.length);
+        forEachRow(batch::add);
+        batch.flush();
+        return bytes[0];
+    }
+
+    private void forEachRow(RowConsumer consumer) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT * FROM bench_users ORDER BY id");
+                ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                consumer.accept(rs);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface RowConsumer {
+        void accept(ResultSet rs) throws SQLException;
+    }
+
+    private static TableSpec usersSpec() {
+        Map<String, ColumnSpec> columns = new LinkedHashMap<>();
+        ColumnSpec username = new ColumnSpec();
+        username.setStrategy("mask");
+        ColumnSpec.MaskSpec mask = new ColumnSpec.MaskSpec();
+        mask.setType("username");
+        mask.setDeterministicKey("id");
+        username.setMask(mask);
+        columns.put("username", username);
+
+        columns.put("email", synthesized("email", "pii"));
+        columns.put("password_hash", synthesized("password_hash", "secret"));
+        columns.put("address", synthesized("address", "pii"));
+
+        TableSpec table = new TableSpec();
+        table.setName("bench_users");
+        table.setColumns(columns);
+        return table;
+    }
+
+    private static ColumnSpec synthesized(String type, String sensitivity) {
+        ColumnSpec column = new ColumnSpec();
+        column.setStrategy("synthesize");
+        column.setSensitivity(sensitivity);
+        ColumnSpec.SynthSpec synth = new ColumnSpec.SynthSpec();
+        synth.setType(type);
+        synth.setDeterministicKey("id");
+        column.setSynth(synth);
+        return column;
+    }
+
+    private static SchemaMetadata.TableMetadata usersMetadata() {
+        SchemaMetadata.TableMetadata metadata = new SchemaMetadata.TableMetadata();
+        metadata.setName("bench_users");
+        metadata.getColumns().add(column("id", "bigint"));
+        for (String name : MASKED_COLUMNS) {
+            metadata.getColumns().add(column(name, "varchar"));
+        }
+        metadata.setPrimaryKey(List.of("id"));
+        return metadata;
+    }
+
+    private static SchemaMetadata.ColumnMetadata column(String name, String dataType) {
+        SchemaMetadata.ColumnMetadata column = new SchemaMetadata.ColumnMetadata();
+        column.setName(name);
+        column.setDataType(dataType);
+        column.setColumnType(dataType);
+        return column;
+    }
+}
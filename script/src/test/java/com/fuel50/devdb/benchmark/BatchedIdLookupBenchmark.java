@@ -0,0 +1,120 @@
+package com.fuel50.devdb.benchmark;
+
+import com.fuel50.devdb.service.BatchedIdLookup;
+import com.fuel50.devdb.service.IdSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link BatchedIdLookup} across chunk sizes, fetching every tenth row of a
+ * 200k-row table, and of the single literal IN list the lookup replaced.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BatchedIdLookupBenchmark {
+    private static final int TABLE_ROWS = 200_000;
+    private static final int SELECTED_IDS = 20_000;
+
+    @Param({ "1", "100", "500", "1000", "5000" })
+    public int chunkSize;
+
+    private Connection conn;
+    private IdSet ids;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        conn = BenchmarkDatabase.open();
+        BenchmarkDatabase.createTable(conn, "bench_lookup", "payload VARCHAR(64)", TABLE_ROWS,
+                (insert, id) -> insert.setString(2, "row-" + id));
+
+        ids = selectedIds();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP TABLE bench_lookup");
+        }
+        conn.close();
+    }
+
+    @Benchmark
+    public long chunkedLookup(Blackhole blackhole) throws SQLException {
+        BatchedIdLookup lookup = new BatchedIdLookup(conn, chunkSize);
+        return lookup.forEachRow("SELECT id, payload FROM bench_lookup WHERE id", "", ids, rs -> {
+            blackhole.consume(rs.getString(2));
+            return true;
+        });
+    }
+
+    /** The single literal IN list built before chunking, which has no chunk size to vary. */
+    @State(Scope.Benchmark)
+    public static class LiteralInList {
+        private Connection conn;
+        private Set<Long> ids;
+
+        @Setup(Level.Trial)
+        public void setUp() throws SQLException {
+            conn = BenchmarkDatabase.open();
+            BenchmarkDatabase.createTable(conn, "bench_lookup", "payload VARCHAR(64)", TABLE_ROWS,
+                    (insert, id) -> insert.setString(2, "row-" + id));
+            ids = new HashSet<>();
+            selectedIds().forEach(ids::add);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws SQLException {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("DROP TABLE bench_lookup");
+            }
+            conn.close();
+        }
+
+        @Benchmark
+        public long literalInList(Blackhole blackhole) throws SQLException {
+            String idList = ids.stream().map(String::valueOf).reduce((a, b) -> a + "," + b).orElse("");
+            long rows = 0;
+            try (Statement stmt = conn.createStatement();
+                    ResultSet rs = stmt.executeQuery(
+                            "SELECT id, payload FROM bench_lookup WHERE id IN (" + idList + ")")) {
+                while (rs.next()) {
+                    blackhole.consume(rs.getString(2));
+                    rows++;
+                }
+            }
+            return rows;
+        }
+    }
+
+    private static IdSet selectedIds() {
+        IdSet ids = IdSet.create();
+        for (long id = 2; ids.size() < SELECTED_IDS; id += TABLE_ROWS / SELECTED_IDS) {
+            ids.add(id);
+        }
+        return ids.freeze();
+    }
+}
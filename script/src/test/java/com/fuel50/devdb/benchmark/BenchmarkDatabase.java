@@ -0,0 +1,72 @@
+package com.fuel50.devdb.benchmark;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+
+/**
+ * Connections for the database benchmarks. They run against an in-memory H2 database unless
+ * {@code -Dbenchmark.jdbc.url} (with {@code benchmark.jdbc.user} and
+ * {@code benchmark.jdbc.password}) points them at a MySQL instance such as local-mysql.
+ */
+final class BenchmarkDatabase {
+    static final String URL = System.getProperty("benchmark.jdbc.url",
+            "jdbc:h2:mem:benchmark;MODE=MySQL;DB_CLOSE_DELAY=-1");
+
+    private BenchmarkDatabase() {
+    }
+
+    static Connection open() throws SQLException {
+        Properties props = new Properties();
+        props.setProperty("user", System.getProperty("benchmark.jdbc.user", "root"));
+        props.setProperty("password", System.getProperty("benchmark.jdbc.password", "root"));
+        props.setProperty("allowLoadLocalInfile", "true");
+        props.setProperty("rewriteBatchedStatements", "true");
+        return DriverManager.getConnection(URL, props);
+    }
+
+    static boolean isMySql() {
+        return URL.startsWith("jdbc:mysql:");
+    }
+
+    /** Creates {@code table(id BIGINT PRIMARY KEY, ...)} and fills ids 1..rows through the binder. */
+    static void createTable(Connection conn, String table, String columns, int rows, RowBinder binder)
+            throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP TABLE IF EXISTS " + table);
+            stmt.execute("CREATE TABLE " + table + " (id BIGINT PRIMARY KEY, " + columns + ")");
+        }
+        int params = columns.split(",").length + 1;
+        StringBuilder placeholders = new StringBuilder("?");
+        for (int i = 1; i < params; i++) {
+            placeholders.append(", ?");
+        }
+
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try (PreparedStatement insert = conn.prepareStatement(
+                "INSERT INTO " + table + " VALUES (" + placeholders + ")")) {
+            for (long id = 1; id <= rows; id++) {
+                insert.setLong(1, id);
+                binder.bind(insert, id);
+                insert.addBatch();
+                if (id % 1000 == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+            conn.commit();
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    @FunctionalInterface
+    interface RowBinder {
+        /** Binds the columns after the id, starting at parameter 2. */
+        void bind(PreparedStatement insert, long id) throws SQLException;
+    }
+}
@@ -0,0 +1,84 @@
+package com.fuel50.devdb.benchmark;
+
+import com.fuel50.devdb.service.DeterministicHasher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one masked cell: the per-call {@code MessageDigest} and full hex string the
+ * masker used to build, against {@link DeterministicHasher} in both modes reading the
+ * eight hex characters a username mask needs.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DeterministicHasherBenchmark {
+    private static final int VALUES = 1024;
+
+    @Param({ "12", "64" })
+    public int valueLength;
+
+    private final DeterministicHasher sha256 = new DeterministicHasher(DeterministicHasher.Algorithm.SHA256, "salt");
+    private final DeterministicHasher sipHash = new DeterministicHasher(DeterministicHasher.Algorithm.SIPHASH, "salt");
+    private final DeterministicHasher.Digest digest = new DeterministicHasher.Digest();
+    private String[] values;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        values = new String[VALUES];
+        for (int i = 0; i < VALUES; i++) {
+            StringBuilder value = new StringBuilder(valueLength);
+            while (value.length() < valueLength) {
+                value.append("user").append(i).append("@example.com");
+            }
+            values[i] = value.substring(0, valueLength);
+        }
+    }
+
+    @Benchmark
+    public String legacyMessageDigest() throws NoSuchAlgorithmException {
+        MessageDigest md = MessageDigest.getInstance("SHA-256");
+        byte[] hash = md.digest(("salt_" + nextValue()).getBytes(StandardCharsets.UTF_8));
+        StringBuilder hexString = new StringBuilder();
+        for (byte b : hash) {
+            String hex = Integer.toHexString(0xff & b);
+            if (hex.length() == 1) {
+                hexString.append('0');
+            }
+            hexString.append(hex);
+        }
+        return hexString.toString().substring(0, 8);
+    }
+
+    @Benchmark
+    public String threadLocalSha256() {
+        return sha256.digest("salt", nextValue(), digest).hex(0, 8);
+    }
+
+    @Benchmark
+    public String threadLocalSipHash() {
+        return sipHash.digest("salt", nextValue(), digest).hex(0, 8);
+    }
+
+    private String nextValue() {
+        return values[next++ & (VALUES - 1)];
+    }
+}
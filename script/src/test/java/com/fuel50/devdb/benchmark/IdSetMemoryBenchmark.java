@@ -0,0 +1,65 @@
+package com.fuel50.devdb.benchmark;
+
+import com.fuel50.devdb.service.IdSet;
+
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Compares the heap retained by {@link IdSet} with the boxed {@code HashSet<Long>} it replaced,
+ * at 1M and 10M random ids. Retained size is read from the used heap after a full GC:
+ * {@code mvn -Pbenchmark -DskipTests verify -Dbenchmark.main=com.fuel50.devdb.benchmark.IdSetMemoryBenchmark}
+ */
+public final class IdSetMemoryBenchmark {
+    private static final int[] SIZES = { 1_000_000, 10_000_000 };
+
+    private IdSetMemoryBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        System.out.println("ids          boxed HashSet     IdSet    bytes/id (boxed / IdSet)");
+        for (int size : SIZES) {
+            long boxed = retained(() -> {
+                Set<Long> ids = new HashSet<>();
+                Random random = new Random(size);
+                while (ids.size() < size) {
+                    ids.add(random.nextLong() & Long.MAX_VALUE);
+                }
+                return ids;
+            });
+            long primitive = retained(() -> {
+                IdSet ids = IdSet.create();
+                Random random = new Random(size);
+                for (int i = 0; i < size; i++) {
+                    ids.add(random.nextLong() & Long.MAX_VALUE);
+                }
+                return ids.freeze();
+            });
+            System.out.println(String.format(Locale.ROOT, "%,11d  %10.1f MB  %7.1f MB    %.1f / %.1f", size,
+                    boxed / (1024.0 * 1024.0), primitive / (1024.0 * 1024.0),
+                    (double) boxed / size, (double) primitive / size));
+        }
+    }
+
+    private static long retained(Supplier<Object> build) {
+        long before = usedHeap();
+        Object held = build.get();
+        long after = usedHeap();
+        // Keeps the structure reachable until it has been measured
+        if (held.hashCode() == System.nanoTime()) {
+            System.out.println();
+        }
+        return after - before;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
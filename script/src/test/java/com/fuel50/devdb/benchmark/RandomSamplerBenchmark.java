@@ -0,0 +1,92 @@
+package com.fuel50.devdb.benchmark;
+
+import com.fuel50.devdb.service.IdSet;
+import com.fuel50.devdb.service.RandomSampler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@code random} strategy against the queries it is meant to replace: the {@code sample}
+ * strategy's {@code ORDER BY created_at DESC LIMIT n} and {@code ORDER BY RAND() LIMIT n}.
+ * One id in ten is missing, so the id space has gaps like a table with deletes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RandomSamplerBenchmark {
+
+    @Param({ "100000", "1000000" })
+    public int tableRows;
+
+    @Param({ "1000", "10000" })
+    public int maxRows;
+
+    private Connection conn;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        conn = BenchmarkDatabase.open();
+        long now = System.currentTimeMillis();
+        BenchmarkDatabase.createTable(conn, "bench_sample", "created_at TIMESTAMP", tableRows,
+                (insert, id) -> insert.setTimestamp(2, new Timestamp(now - (tableRows - id) * 1000)));
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("DELETE FROM bench_sample WHERE MOD(id, 10) = 0");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP TABLE bench_sample");
+        }
+        conn.close();
+    }
+
+    @Benchmark
+    public IdSet randomStrategy() throws SQLException {
+        return new RandomSampler(conn).sample("bench_sample", maxRows, null, "benchmark:bench_sample");
+    }
+
+    @Benchmark
+    public IdSet newestFirstLimit() throws SQLException {
+        return query("SELECT id FROM bench_sample ORDER BY created_at DESC LIMIT " + maxRows);
+    }
+
+    @Benchmark
+    public IdSet orderByRand() throws SQLException {
+        return query("SELECT id FROM bench_sample ORDER BY RAND() LIMIT " + maxRows);
+    }
+
+    private IdSet query(String sql) throws SQLException {
+        IdSet ids = IdSet.create();
+        try (PreparedStatement stmt = conn.prepareStatement(sql);
+                ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                ids.add(rs.getLong(1));
+            }
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,146 @@
+package com.fuel50.devdb.benchmark;
+
+import com.fuel50.devdb.service.DatabaseRestorer;
+import com.fuel50.devdb.service.DumpCompression;
+import com.fuel50.devdb.service.DumpFormat;
+import com.fuel50.devdb.service.DumpWriter;
+import com.fuel50.devdb.service.SqlDumpWriter;
+import com.fuel50.devdb.service.TsvDumpWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Restoring the same rows of an orders-like table from the SQL dump (multi-row INSERTs
+ * replayed statement by statement) and from the TSV dump ({@code LOAD DATA LOCAL INFILE}
+ * through Connector/J's input-stream hook). H2 has no {@code LOAD DATA}, so the TSV run
+ * needs {@code -Dbenchmark.jdbc.url} pointing at MySQL, e.g. local-mysql:
+ * {@code mvn -Pbenchmark -DskipTests verify -Dbenchmark.args="RestoreFormatBenchmark"
+ * -Dbenchmark.jdbc.url=jdbc:mysql://local-mysql:3306/fuel50_db}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class RestoreFormatBenchmark {
+    private static final String TABLE = "bench_restore";
+    private static final String COLUMNS = "id BIGINT PRIMARY KEY, user_id BIGINT, total_amount DECIMAL(10,2), "
+            + "status VARCHAR(20), notes VARCHAR(255), created_at DATETIME";
+    private static final List<String> COLUMN_NAMES = List.of(
+            "id", "user_id", "total_amount", "status", "notes", "created_at");
+    private static final String[] STATUSES = { "pending", "paid", "shipped", "cancelled" };
+
+    @Param({ "1000000" })
+    public int rows;
+
+    @Param({ "sql", "tsv" })
+    public String format;
+
+    private Path dir;
+    private Path dump;
+    private Connection conn;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, SQLException {
+        DumpFormat dumpFormat = DumpFormat.fromConfig(format);
+        if (dumpFormat == DumpFormat.TSV && !BenchmarkDatabase.isMySql()) {
+            throw new IllegalStateException("LOAD DATA needs MySQL; set -Dbenchmark.jdbc.url=jdbc:mysql://...");
+        }
+
+        dir = Files.createTempDirectory("devdb-restore-bench");
+        dump = dir.resolve("lightweight-dump.sql");
+        try (DumpWriter writer = dumpFormat == DumpFormat.TSV
+                ? new TsvDumpWriter(dump, DumpCompression.NONE)
+                : new SqlDumpWriter(Files.newOutputStream(dump), 4 * 1024 * 1024, 10_000)) {
+            writer.beginTable(TABLE, COLUMN_NAMES, null);
+            long now = System.currentTimeMillis();
+            for (long id = 1; id <= rows; id++) {
+                writer.writeRow(row(dumpFormat, id, now));
+            }
+            writer.endTable();
+        }
+        conn = BenchmarkDatabase.open();
+    }
+
+    @Setup(Level.Invocation)
+    public void createTable() throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP TABLE IF EXISTS " + TABLE);
+            stmt.execute("CREATE TABLE " + TABLE + " (" + COLUMNS + ")");
+        }
+    }
+
+    // A restore that skipped failed statements would otherwise look fast
+    @TearDown(Level.Invocation)
+    public void checkRowCount() throws SQLException {
+        try (Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM " + TABLE)) {
+            rs.next();
+            if (rs.getLong(1) != rows) {
+                throw new IllegalStateException("Restored " + rs.getLong(1) + " of " + rows + " rows");
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException, SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP TABLE IF EXISTS " + TABLE);
+        }
+        conn.close();
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public void restore() throws Exception {
+        new DatabaseRestorer(conn).restore(dump.toString());
+    }
+
+    // One in ten rows carries notes with the characters TSV has to escape
+    private static byte[] row(DumpFormat format, long id, long now) {
+        Object[] values = {
+                id, id % 50_000 + 1, BigDecimal.valueOf(id * 37 % 100_000, 2), STATUSES[(int) (id % STATUSES.length)],
+                id % 10 == 0 ? "gift\tnote\nfor order " + id + " C:\\orders" : null,
+                new Timestamp(now - id * 1000)
+        };
+        StringBuilder row = new StringBuilder(format.getRowStart());
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                row.append(format.getSeparator());
+            }
+            row.append(format.formatValue(values[i]));
+        }
+        return row.append(format.getRowEnd()).toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,138 @@
+package com.fuel50.devdb.benchmark;
+
+import com.fuel50.devdb.masking.ColumnTransform;
+import com.fuel50.devdb.masking.Masker;
+import com.fuel50.devdb.masking.Synthesizer;
+import com.fuel50.devdb.masking.TransformRegistry;
+import com.fuel50.devdb.model.ColumnSpec;
+import com.fuel50.devdb.model.DatabaseSpec;
+import com.fuel50.devdb.service.DeterministicHasher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of every mask and synth type registered through the SPI, on key digests computed
+ * up front, so only the plugin is measured: one row at a time ({@code derive} then
+ * {@code apply}) and as a batch ({@code applyBatch}). {@link #main} fills the
+ * {@code transform} parameter from the registry, so plugin jars on the classpath are
+ * picked up:
+ * {@code mvn -Pbenchmark -DskipTests verify -Dbenchmark.main=com.fuel50.devdb.benchmark.TransformPluginBenchmark}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransformPluginBenchmark {
+    private static final int ROWS = 1024;
+
+    // Replaced by every registered type when run through main
+    @Param({ "mask:username" })
+    public String transform;
+
+    private ColumnTransform compiled;
+    private DeterministicHasher.Digest[] digests;
+    private Object[] values;
+    private Object[] batch;
+    private Object[] derived;
+    private int next;
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        TransformRegistry registry = TransformRegistry.load();
+        List<String> transforms = new ArrayList<>();
+        for (String type : new TreeSet<>(registry.getMaskers().keySet())) {
+            transforms.add("mask:" + type);
+        }
+        for (String type : new TreeSet<>(registry.getSynthesizers().keySet())) {
+            transforms.add("synth:" + type);
+        }
+
+        new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .include(TransformPluginBenchmark.class.getSimpleName())
+                .param("transform", transforms.toArray(new String[0]))
+                .build()).run();
+    }
+
+    @Setup
+    public void setUp() {
+        DatabaseSpec.MaskingDefaults defaults = new DatabaseSpec.MaskingDefaults();
+        defaults.setDeterministicSalt("benchmark");
+        defaults.setEmailDomain("dev.local");
+        compiled = compile(TransformRegistry.load(), transform, defaults);
+
+        DeterministicHasher hasher = new DeterministicHasher(DeterministicHasher.Algorithm.SHA256, "benchmark");
+        digests = new DeterministicHasher.Digest[ROWS];
+        values = new Object[ROWS];
+        for (int i = 0; i < ROWS; i++) {
+            digests[i] = hasher.digest("benchmark", String.valueOf(i), new DeterministicHasher.Digest());
+            // Numeric maskers leave strings alone, so they get numbers to work on
+            values[i] = transform.equals("mask:numeric_noise") ? (Object) (1000.0 + i) : "value-" + i;
+        }
+        batch = new Object[ROWS];
+        derived = new Object[ROWS];
+    }
+
+    @Benchmark
+    public Object perRow() {
+        int row = next++ & (ROWS - 1);
+        return compiled.apply(values[row], compiled.derive(digests[row]));
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Object[] perBatch() {
+        System.arraycopy(values, 0, batch, 0, ROWS);
+        for (int row = 0; row < ROWS; row++) {
+            derived[row] = compiled.derive(digests[row]);
+        }
+        compiled.applyBatch(batch, derived, 0, ROWS);
+        return batch;
+    }
+
+    private static ColumnTransform compile(TransformRegistry registry, String transform,
+            DatabaseSpec.MaskingDefaults defaults) {
+        String type = transform.substring(transform.indexOf(':') + 1);
+        if (transform.startsWith("mask:")) {
+            Masker masker = registry.getMasker(type);
+            if (masker == null) {
+                throw new IllegalArgumentException("Unknown mask type: " + type);
+            }
+            ColumnSpec.MaskSpec mask = new ColumnSpec.MaskSpec();
+            mask.setType(type);
+            mask.setDeterministicKey("id");
+            mask.setPercent(10);
+            return masker.compile(mask, defaults);
+        }
+
+        Synthesizer synthesizer = registry.getSynthesizer(type);
+        if (synthesizer == null) {
+            throw new IllegalArgumentException("Unknown synth type: " + type);
+        }
+        ColumnSpec.SynthSpec synth = new ColumnSpec.SynthSpec();
+        synth.setType(type);
+        synth.setDeterministicKey("id");
+        synth.setDomain("dev.local");
+        return synthesizer.compile(synth, defaults);
+    }
+}
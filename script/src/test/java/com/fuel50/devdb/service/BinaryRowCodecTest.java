@@ -0,0 +1,174 @@
+package com.fuel50.devdb.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class BinaryRowCodecTest {
+    private Connection conn;
+
+    @BeforeEach
+    void openDatabase() throws SQLException {
+        conn = DriverManager.getConnection("jdbc:h2:mem:");
+    }
+
+    @AfterEach
+    void closeDatabase() throws SQLException {
+        conn.close();
+    }
+
+    @Test
+    void roundsNoiseAndReadsYearsIntoLongs() throws SQLException {
+        BinaryRowCodec.Column column = new BinaryRowCodec.Column("v", BinaryRowCodec.Type.LONG, 0);
+
+        assertEquals(List.of(42L, 3L, -2L, 8L, 1L, 2024L, 17L), roundTrip(column, "BIGINT", Long.class,
+                42, 2.5, -2.5, 7.6f, true, java.sql.Date.valueOf("2024-01-01"), " 17 "));
+        // A DECIMAL noised onto an integer column rounds half up, unlike Math.round on doubles
+        assertEquals(List.of(-3L), roundTrip(column, "BIGINT", Long.class, new BigDecimal("-2.5")));
+    }
+
+    @Test
+    void rescalesDecimalsHalfUpToTheColumnScale() throws SQLException {
+        BinaryRowCodec.Column column = new BinaryRowCodec.Column("v", BinaryRowCodec.Type.DECIMAL, 2);
+
+        assertEquals(List.of(new BigDecimal("1.01"), new BigDecimal("-1.01"), new BigDecimal("12.35"),
+                        new BigDecimal("7.00"), new BigDecimal("0.13"), new BigDecimal("18446744073709551615.00")),
+                roundTrip(column, "DECIMAL(22,2)", BigDecimal.class, new BigDecimal("1.005"),
+                        new BigDecimal("-1.005"), 12.345, 7, "0.125", new BigInteger("18446744073709551615")));
+    }
+
+    @Test
+    void keepsDoublesExact() throws SQLException {
+        BinaryRowCodec.Column column = new BinaryRowCodec.Column("v", BinaryRowCodec.Type.DOUBLE, 0);
+
+        assertEquals(List.of(0.1, -1234.5678, 3.0, 2.5), roundTrip(column, "DOUBLE", Double.class,
+                0.1, -1234.5678, 3, "2.5"));
+    }
+
+    @Test
+    void storesDatesAsEpochDays() throws SQLException {
+        BinaryRowCodec.Column column = new BinaryRowCodec.Column("v", BinaryRowCodec.Type.DATE, 0);
+
+        assertEquals(List.of(LocalDate.of(2024, 2, 29), LocalDate.of(1969, 12, 31), LocalDate.of(2023, 6, 1),
+                        LocalDate.of(2023, 6, 2)),
+                roundTrip(column, "DATE", LocalDate.class, java.sql.Date.valueOf("2024-02-29"),
+                        LocalDate.of(1969, 12, 31), Timestamp.valueOf("2023-06-01 23:59:59"), "2023-06-02"));
+    }
+
+    @Test
+    void storesTimestampsAsWallClockReadAsUtc() throws SQLException {
+        BinaryRowCodec.Column column = new BinaryRowCodec.Column("v", BinaryRowCodec.Type.TIMESTAMP, 0);
+        LocalDateTime wallClock = LocalDateTime.of(2024, 3, 10, 14, 30, 15, 123_456_789);
+
+        // The stored seconds do not depend on the JVM's time zone
+        ByteBuffer encoded = ByteBuffer.wrap(new BinaryRowCodec(List.of(column)).encode(new Object[] { wallClock }));
+        assertEquals(1, encoded.get());
+        assertEquals(wallClock.toEpochSecond(ZoneOffset.UTC), encoded.getLong());
+        assertEquals(123_456_789, encoded.getInt());
+
+        assertEquals(List.of(wallClock, wallClock, LocalDateTime.of(2024, 3, 10, 0, 0), wallClock),
+                roundTrip(column, "TIMESTAMP(9)", LocalDateTime.class, Timestamp.valueOf(wallClock), wallClock,
+                        java.sql.Date.valueOf("2024-03-10"), "2024-03-10 14:30:15.123456789"));
+    }
+
+    @Test
+    void storesStringsAndBytesAsUtf8() throws SQLException {
+        BinaryRowCodec.Column text = new BinaryRowCodec.Column("v", BinaryRowCodec.Type.STRING, 0);
+        assertEquals(List.of("東京 Fake St", "", "1", "12:34:56"), roundTrip(text, "VARCHAR(50)", String.class,
+                "東京 Fake St", "", true, "12:34:56"));
+
+        BinaryRowCodec.Column bytes = new BinaryRowCodec.Column("v", BinaryRowCodec.Type.BYTES, 0);
+        List<byte[]> restored = roundTrip(bytes, "VARBINARY(10)", byte[].class,
+                new byte[] { 0, -1, 7 }, true, "ab");
+        assertArrayEquals(new byte[] { 0, -1, 7 }, restored.get(0));
+        assertArrayEquals(new byte[] { 1 }, restored.get(1));
+        assertArrayEquals("ab".getBytes(StandardCharsets.UTF_8), restored.get(2));
+    }
+
+    @Test
+    void bindsNullsAndLeavesTheBufferAtTheNextRow() throws SQLException {
+        BinaryRowCodec codec = new BinaryRowCodec(List.of(
+                new BinaryRowCodec.Column("id", BinaryRowCodec.Type.LONG, 0),
+                new BinaryRowCodec.Column("amount", BinaryRowCodec.Type.DECIMAL, 2),
+                new BinaryRowCodec.Column("notes", BinaryRowCodec.Type.STRING, 0),
+                new BinaryRowCodec.Column("created_at", BinaryRowCodec.Type.TIMESTAMP, 0)));
+        byte[] first = codec.encode(new Object[] { 1L, null, "first", null });
+        byte[] second = codec.encode(new Object[] { 2L, new BigDecimal("9.99"), null, Timestamp.valueOf(
+                "2024-01-01 00:00:00") });
+        ByteBuffer rows = ByteBuffer.allocate(first.length + second.length).put(first).put(second).flip();
+
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE orders (id BIGINT, amount DECIMAL(10,2), notes VARCHAR(20),"
+                    + " created_at TIMESTAMP)");
+        }
+        try (PreparedStatement insert = conn.prepareStatement("INSERT INTO orders VALUES (?, ?, ?, ?)")) {
+            while (rows.hasRemaining()) {
+                codec.bind(rows, insert);
+                insert.executeUpdate();
+            }
+        }
+
+        try (Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery("SELECT * FROM orders ORDER BY id")) {
+            rs.next();
+            assertEquals(1L, rs.getLong(1));
+            assertNull(rs.getBigDecimal(2));
+            assertEquals("first", rs.getString(3));
+            assertNull(rs.getTimestamp(4));
+            rs.next();
+            assertEquals(2L, rs.getLong(1));
+            assertEquals(new BigDecimal("9.99"), rs.getBigDecimal(2));
+            assertNull(rs.getString(3));
+            assertEquals(LocalDateTime.of(2024, 1, 1, 0, 0), rs.getObject(4, LocalDateTime.class));
+            assertFalse(rs.next());
+        }
+    }
+
+    // Encodes each value as a one-column row, binds it into an INSERT and reads it back
+    private <T> List<T> roundTrip(BinaryRowCodec.Column column, String sqlType, Class<T> type, Object... values)
+            throws SQLException {
+        BinaryRowCodec codec = new BinaryRowCodec(List.of(column));
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP TABLE IF EXISTS t");
+            stmt.execute("CREATE TABLE t (seq INT, v " + sqlType + ")");
+        }
+        try (PreparedStatement insert = conn.prepareStatement("INSERT INTO t (v, seq) VALUES (?, ?)")) {
+            for (int i = 0; i < values.length; i++) {
+                codec.bind(ByteBuffer.wrap(codec.encode(new Object[] { values[i] })), insert);
+                insert.setInt(2, i);
+                insert.executeUpdate();
+            }
+        }
+
+        List<T> restored = new ArrayList<>();
+        try (Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery("SELECT v FROM t ORDER BY seq")) {
+            while (rs.next()) {
+                restored.add(rs.getObject(1, type));
+            }
+        }
+        return restored;
+    }
+}
@@ -0,0 +1,107 @@
+package com.fuel50.devdb.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DatabaseRestorerTest {
+    private static final String URL = "jdbc:h2:mem:restorer;DB_CLOSE_DELAY=-1";
+
+    @TempDir
+    Path dir;
+
+    private Connection conn;
+    private final List<String> shards = new ArrayList<>();
+
+    @BeforeEach
+    void createSchema() throws SQLException {
+        conn = DriverManager.getConnection(URL);
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE users (id BIGINT PRIMARY KEY)");
+            stmt.execute("CREATE TABLE tags (id BIGINT PRIMARY KEY)");
+            stmt.execute("CREATE TABLE orders (id BIGINT PRIMARY KEY, user_id BIGINT)");
+            stmt.execute("CREATE TABLE payments (id BIGINT PRIMARY KEY, order_id BIGINT)");
+            stmt.execute("CREATE TABLE audit (id BIGINT PRIMARY KEY)");
+        }
+    }
+
+    @AfterEach
+    void dropDatabase() throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP ALL OBJECTS");
+        }
+        conn.close();
+    }
+
+    @Test
+    void skipsTablesWhoseParentsFailedAndTheirChildren() throws Exception {
+        shard("users", 0, "[]", "INSERT INTO users (id, missing) VALUES (1, 2);");
+        shard("tags", 0, "[]", "INSERT INTO tags (id) VALUES (1), (2);");
+        shard("orders", 1, "[\"users\"]", "INSERT INTO orders (id, user_id) VALUES (10, 1);");
+        shard("payments", 2, "[\"orders\"]", "INSERT INTO payments (id, order_id) VALUES (100, 10);");
+        shard("audit", 2, "[\"tags\"]", "INSERT INTO audit (id) VALUES (7);");
+
+        Set<String> failed = restore();
+
+        assertEquals(Set.of("users", "orders", "payments"), failed);
+        assertEquals(2, count("tags"));
+        assertEquals(1, count("audit"));
+        assertEquals(0, count("orders"));
+        assertEquals(0, count("payments"));
+    }
+
+    @Test
+    void treatsEveryLowerLevelAsAParentWithoutReferences() throws Exception {
+        shard("users", 0, null, "INSERT INTO users (id, missing) VALUES (1, 2);");
+        shard("tags", 0, null, "INSERT INTO tags (id) VALUES (1), (2);");
+        shard("audit", 1, null, "INSERT INTO audit (id) VALUES (7);");
+
+        Set<String> failed = restore();
+
+        assertEquals(Set.of("users", "audit"), failed);
+        assertEquals(2, count("tags"));
+        assertEquals(0, count("audit"));
+    }
+
+    private void shard(String table, int level, String references, String sql) throws Exception {
+        Path file = dir.resolve(table + ".sql");
+        byte[] content = (sql + "\n").getBytes(StandardCharsets.UTF_8);
+        Files.write(file, content);
+        shards.add("{ \"file\": \"" + file.getFileName() + "\", \"table\": \"" + table + "\", \"part\": 1"
+                + ", \"fk_level\": " + level + (references != null ? ", \"references\": " + references : "")
+                + ", \"rows\": 1, \"bytes\": " + content.length + ", \"sha256\": \""
+                + HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content)) + "\" }");
+    }
+
+    private Set<String> restore() throws Exception {
+        Path manifest = dir.resolve("manifest.json");
+        Files.writeString(manifest, "{ \"shards\": [" + String.join(", ", shards) + "] }");
+        return new DatabaseRestorer(conn).restoreShards(manifest, () -> DriverManager.getConnection(URL), 2,
+                Set.of());
+    }
+
+    private long count(String table) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM " + table)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.fuel50.devdb.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DeterministicHasherTest {
+    // Reference key 00 01 .. 0f read as two little-endian words
+    private static final long K0 = 0x0706050403020100L;
+    private static final long K1 = 0x0f0e0d0c0b0a0908L;
+
+    @Test
+    void sha256ModeMatchesMessageDigestOfUtf8Input() throws NoSuchAlgorithmException {
+        DeterministicHasher hasher = new DeterministicHasher(DeterministicHasher.Algorithm.SHA256, "salt");
+        DeterministicHasher.Digest digest = new DeterministicHasher.Digest();
+        String[] values = {
+                "", "plain ascii", "café", "日本語", "emoji 😀 pair",
+                "lone \uD800 high", "lone \uDC00 low", "trailing \uD83D", "x".repeat(1000) + "é".repeat(500)
+        };
+
+        for (String value : values) {
+            byte[] expected = MessageDigest.getInstance("SHA-256")
+                    .digest(("prefix_" + value).getBytes(StandardCharsets.UTF_8));
+            assertArrayEquals(expected, hasher.digest("prefix", value, digest).bytes(), value);
+        }
+    }
+
+    @Test
+    void hexMatchesTheFullHexStringOfTheDigest() {
+        DeterministicHasher hasher = new DeterministicHasher(DeterministicHasher.Algorithm.SHA256, "salt");
+        DeterministicHasher.Digest digest = hasher.digest("42", "alice@example.com", new DeterministicHasher.Digest());
+        String full = HexFormat.of().formatHex(digest.bytes());
+
+        assertEquals(full, digest.hex(0, 64));
+        assertEquals(full.substring(0, 8), digest.hex(0, 8));
+        assertEquals(full.substring(22, 31), digest.hex(22, 31));
+        assertEquals(full.hashCode(), digest.hexHashCode());
+    }
+
+    @Test
+    void sipHashMatchesReferenceVectors() {
+        // Output for the message 00 01 .. (n-1), from the SipHash paper's test vectors
+        long[] expected = {
+                0x726fdb47dd0e0e31L, 0x74f839c593dc67fdL, 0x0d6c8009d9a94f5aL, 0x85676696d7fb7e2dL,
+                0xcf2794e0277187b7L, 0x18765564cd99a68dL, 0xcbc9466e58fee3ceL, 0xab0200f58b01d137L,
+                0x93f5f5799a932462L
+        };
+        byte[] message = new byte[16];
+        for (int i = 0; i < message.length; i++) {
+            message[i] = (byte) i;
+        }
+
+        for (int length = 0; length < expected.length; length++) {
+            assertEquals(expected[length], DeterministicHasher.sipHash24(K0, K1, message, length), "length " + length);
+        }
+        assertEquals(0xa129ca6149be45e5L, DeterministicHasher.sipHash24(K0, K1, message, 15));
+    }
+
+    @Test
+    void sipHashModeIsKeyedBySalt() {
+        DeterministicHasher first = new DeterministicHasher(DeterministicHasher.Algorithm.SIPHASH, "salt");
+        DeterministicHasher again = new DeterministicHasher(DeterministicHasher.Algorithm.SIPHASH, "salt");
+        DeterministicHasher other = new DeterministicHasher(DeterministicHasher.Algorithm.SIPHASH, "pepper");
+
+        String hex = first.digest("7", "bob", new DeterministicHasher.Digest()).hex(0, 64);
+
+        assertEquals(hex, again.digest("7", "bob", new DeterministicHasher.Digest()).hex(0, 64));
+        assertNotEquals(hex, other.digest("7", "bob", new DeterministicHasher.Digest()).hex(0, 64));
+        assertNotEquals(hex, first.digest("7", "bob2", new DeterministicHasher.Digest()).hex(0, 64));
+    }
+
+    @Test
+    void parsesAlgorithmNames() {
+        assertEquals(DeterministicHasher.Algorithm.SHA256, DeterministicHasher.Algorithm.fromConfig(null));
+        assertEquals(DeterministicHasher.Algorithm.SIPHASH, DeterministicHasher.Algorithm.fromConfig("SipHash"));
+        assertThrows(IllegalArgumentException.class, () -> DeterministicHasher.Algorithm.fromConfig("md5"));
+    }
+}
@@ -0,0 +1,72 @@
+package com.fuel50.devdb.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DumpFormatTest {
+
+    @Test
+    void tsvWritesNullAndBooleansTheWayLoadDataReadsThem() {
+        assertEquals("\\N", DumpFormat.TSV.formatValue(null));
+        assertEquals("1", DumpFormat.TSV.formatValue(true));
+        assertEquals("0", DumpFormat.TSV.formatValue(false));
+        assertEquals("12.50", DumpFormat.TSV.formatValue(new BigDecimal("12.50")));
+        // The literal text N is data, not NULL
+        assertEquals("N", DumpFormat.TSV.formatValue("N"));
+    }
+
+    @Test
+    void tsvEscapesSeparatorsAndTheEscapeCharacter() {
+        assertEquals("a\\tb", DumpFormat.TSV.formatValue("a\tb"));
+        assertEquals("line1\\nline2\\r", DumpFormat.TSV.formatValue("line1\nline2\r"));
+        assertEquals("C:\\\\temp\\\\N", DumpFormat.TSV.formatValue("C:\\temp\\N"));
+        assertEquals("nul\\0byte", DumpFormat.TSV.formatValue("nul\0byte"));
+        assertEquals("\\\\N", DumpFormat.TSV.formatValue("\\N"));
+    }
+
+    @Test
+    void tsvReturnsValuesWithoutSpecialCharactersUnchanged() {
+        String value = "user_1a2b3c4d, \"quoted\" 'single' 東京";
+        assertSame(value, DumpFormat.TSV.formatValue(value));
+    }
+
+    @Test
+    void tsvRowsAreTabSeparatedWithoutDelimiters() {
+        assertEquals("", DumpFormat.TSV.getRowStart());
+        assertEquals("\t", DumpFormat.TSV.getSeparator());
+        assertEquals("", DumpFormat.TSV.getRowEnd());
+    }
+
+    @Test
+    void binaryRowsAreNotFormattedAsText() {
+        assertThrows(IllegalStateException.class, () -> DumpFormat.BINARY.formatValue("x"));
+    }
+
+    @Test
+    void parsesFormatNames() {
+        assertEquals(DumpFormat.SQL, DumpFormat.fromConfig(null));
+        assertEquals(DumpFormat.TSV, DumpFormat.fromConfig("tsv"));
+        assertEquals(DumpFormat.BINARY, DumpFormat.fromConfig("BINARY"));
+        assertThrows(IllegalArgumentException.class, () -> DumpFormat.fromConfig("csv"));
+    }
+
+    @Test
+    void incrementalTsvAndBinaryAreRejectedUpFront() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> LightweightGenerator.validateOptions(true, DumpFormat.TSV));
+        assertTrue(e.getMessage().contains("--incremental") && e.getMessage().contains("--format tsv"));
+        e = assertThrows(IllegalArgumentException.class,
+                () -> LightweightGenerator.validateOptions(true, DumpFormat.BINARY));
+        assertTrue(e.getMessage().contains("--incremental") && e.getMessage().contains("--format binary"));
+
+        LightweightGenerator.validateOptions(true, DumpFormat.SQL);
+        LightweightGenerator.validateOptions(false, DumpFormat.TSV);
+        LightweightGenerator.validateOptions(false, DumpFormat.BINARY);
+    }
+}
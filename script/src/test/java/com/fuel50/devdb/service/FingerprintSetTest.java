@@ -0,0 +1,67 @@
+package com.fuel50.devdb.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FingerprintSetTest {
+
+    @Test
+    void rejectsDuplicatesWhileInMemory() throws IOException {
+        try (FingerprintSet set = new FingerprintSet(FingerprintSet.DEFAULT_SPILL_THRESHOLD)) {
+            for (long value = -5000; value < 5000; value++) {
+                assertTrue(set.add(value * 7919));
+            }
+            for (long value = -5000; value < 5000; value++) {
+                assertFalse(set.add(value * 7919));
+            }
+            assertEquals(10_000, set.size());
+        }
+    }
+
+    @Test
+    void findsValuesInSpilledAndMergedRuns() throws IOException {
+        // A threshold of 16 spills every 16 values and merges the runs every eighth spill
+        long[] values = new SplittableRandom(42).longs(2000).toArray();
+        try (FingerprintSet set = new FingerprintSet(16)) {
+            for (long value : values) {
+                assertTrue(set.add(value));
+            }
+            for (long value : values) {
+                assertFalse(set.add(value), "lost " + value);
+            }
+            assertTrue(set.add(Long.MIN_VALUE));
+            assertTrue(set.add(Long.MAX_VALUE));
+            assertFalse(set.add(Long.MIN_VALUE));
+            assertEquals(values.length + 2, set.size());
+        }
+    }
+
+    @Test
+    void refusesUseAfterClose() throws IOException {
+        FingerprintSet set = new FingerprintSet(4);
+        for (long value = 1; value <= 20; value++) {
+            set.add(value);
+        }
+        set.close();
+        set.close();
+
+        assertThrows(IllegalStateException.class, () -> set.add(21));
+    }
+
+    @Test
+    void fingerprintsDependOnEveryCharacterAndTheSeed() {
+        long base = FingerprintSet.fingerprint("user1a2b3c@dev.local");
+
+        assertEquals(base, FingerprintSet.fingerprint(new StringBuilder("user1a2b3c@dev.local")));
+        assertNotEquals(base, FingerprintSet.fingerprint("user1a2b3d@dev.local"));
+        assertNotEquals(base, FingerprintSet.fingerprint("user1a2b3c@dev.local", 1));
+    }
+}
@@ -0,0 +1,140 @@
+package com.fuel50.devdb.service;
+
+import com.fuel50.devdb.model.TableSpec;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ForeignKeyClosureTest {
+    private Connection conn;
+
+    @BeforeEach
+    void createSchema() throws SQLException {
+        conn = DriverManager.getConnection("jdbc:h2:mem:");
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE users (id BIGINT PRIMARY KEY)");
+            stmt.execute("CREATE TABLE orders (id BIGINT PRIMARY KEY, user_id BIGINT)");
+            stmt.execute("CREATE TABLE payments (id BIGINT PRIMARY KEY, order_id BIGINT)");
+            stmt.execute("INSERT INTO users VALUES (1), (2), (3), (4), (5)");
+            stmt.execute("INSERT INTO orders VALUES (10, 1), (11, 3), (12, 4), (13, 5), (14, NULL), (15, 2)");
+            stmt.execute("INSERT INTO payments VALUES (100, 12), (101, 10), (102, 13), (103, 15)");
+            stmt.execute("CREATE TABLE employees (id BIGINT PRIMARY KEY, manager_id BIGINT)");
+            stmt.execute("INSERT INTO employees VALUES (20, NULL), (21, NULL), (22, NULL), (1, 20), (2, 21), (3, 22),"
+                    + " (10, 1), (11, 2), (12, 3), (13, 1)");
+        }
+    }
+
+    @AfterEach
+    void closeDatabase() throws SQLException {
+        conn.close();
+    }
+
+    @Test
+    void addsEveryReferencedParentWithoutBudget() throws SQLException {
+        Map<String, TableSpec> tables = schema(null, "sample");
+
+        Map<String, IdSet> result = expand(tables, Map.of(
+                "users", ids(1), "orders", ids(10, 11, 12), "payments", ids(102)));
+
+        assertEquals(List.of(1L, 3L, 4L, 5L), toList(result.get("users")));
+        assertEquals(List.of(10L, 11L, 12L, 13L), toList(result.get("orders")));
+        assertEquals(List.of(102L), toList(result.get("payments")));
+    }
+
+    @Test
+    void dropsRowsWhoseParentsExceedMaxRowsAndEverythingReferencingThem() throws SQLException {
+        Map<String, TableSpec> tables = schema(3, "sample");
+
+        // users has room for one more parent: 3 fits, 4 and 5 do not
+        Map<String, IdSet> result = expand(tables, Map.of(
+                "users", ids(1, 2), "orders", ids(10, 11, 12, 13, 14), "payments", ids(100, 101, 102)));
+
+        assertEquals(List.of(1L, 2L, 3L), toList(result.get("users")));
+        assertEquals(List.of(10L, 11L, 14L), toList(result.get("orders")));
+        assertEquals(List.of(101L), toList(result.get("payments")));
+    }
+
+    @Test
+    void followsChildrenOfNewParentsIntoClosureTables() throws SQLException {
+        Map<String, TableSpec> tables = schema(null, "fk_closure");
+
+        // Payment 103 pulls in order 15, which pulls in user 2; user 2 has no other orders
+        Map<String, IdSet> result = expand(tables, Map.of("payments", ids(103)));
+
+        assertEquals(List.of(2L), toList(result.get("users")));
+        assertEquals(List.of(15L), toList(result.get("orders")));
+        assertEquals(List.of(103L), toList(result.get("payments")));
+    }
+
+    @Test
+    void keepsFollowingChildrenOfASelfReferencingTableOverBudget() throws SQLException {
+        Map<String, TableSpec> tables = new LinkedHashMap<>();
+        tables.put("employees", table("employees", 7, "fk_closure", "manager_id", "employees"));
+
+        // Managers 1-3 fit, but only one of their managers 20-22 does: 2 and 3 go, taking 11 and 12
+        // with them, which frees room for 13, another report of the surviving manager 1
+        Map<String, IdSet> result = expand(tables, Map.of("employees", ids(10, 11, 12)));
+
+        assertEquals(List.of(1L, 10L, 13L, 20L), toList(result.get("employees")));
+    }
+
+    private Map<String, IdSet> expand(Map<String, TableSpec> tables, Map<String, IdSet> initial)
+            throws SQLException {
+        ForeignKeyClosure closure = new ForeignKeyClosure(tables, conn, 2,
+                table -> table.getSubset() != null ? table.getSubset().getMaxRows() : null);
+        return closure.expand(new HashMap<>(initial));
+    }
+
+    private static Map<String, TableSpec> schema(Integer userMaxRows, String childStrategy) {
+        Map<String, TableSpec> tables = new LinkedHashMap<>();
+        tables.put("users", table("users", userMaxRows, "sample"));
+        tables.put("orders", table("orders", null, childStrategy, "user_id", "users"));
+        tables.put("payments", table("payments", null, childStrategy, "order_id", "orders"));
+        return tables;
+    }
+
+    private static TableSpec table(String name, Integer maxRows, String strategy, String... reference) {
+        TableSpec table = new TableSpec();
+        table.setName(name);
+        TableSpec.SubsetSpec subset = new TableSpec.SubsetSpec();
+        subset.setStrategy(strategy);
+        subset.setMaxRows(maxRows);
+        table.setSubset(subset);
+        if (reference.length > 0) {
+            TableSpec.ForeignKeyReference ref = new TableSpec.ForeignKeyReference();
+            ref.setColumn(reference[0]);
+            ref.setTable(reference[1]);
+            ref.setColumnRef("id");
+            TableSpec.ForeignKeySpec fk = new TableSpec.ForeignKeySpec();
+            fk.setReferences(List.of(ref));
+            table.setFk(fk);
+        }
+        return table;
+    }
+
+    private static IdSet ids(long... values) {
+        IdSet ids = IdSet.create();
+        for (long value : values) {
+            ids.add(value);
+        }
+        return ids;
+    }
+
+    private static List<Long> toList(IdSet ids) {
+        List<Long> list = new ArrayList<>();
+        ids.forEach(list::add);
+        return list;
+    }
+}
@@ -0,0 +1,86 @@
+package com.fuel50.devdb.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class KeysetPageReaderTest {
+    private static final Timestamp WATERMARK = Timestamp.valueOf("2024-01-01 00:00:00");
+
+    private Connection conn;
+
+    @BeforeEach
+    void createTable() throws SQLException {
+        conn = DriverManager.getConnection("jdbc:h2:mem:");
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE items (id BIGINT PRIMARY KEY, updated_at TIMESTAMP)");
+        }
+        // Even ids changed after the watermark, odd ids before it
+        try (PreparedStatement stmt = conn.prepareStatement("INSERT INTO items VALUES (?, ?)")) {
+            for (long id = 1; id <= 100; id++) {
+                stmt.setLong(1, id);
+                stmt.setTimestamp(2, new Timestamp(WATERMARK.getTime() + (id % 2 == 0 ? 1000 : -1000)));
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    @AfterEach
+    void closeDatabase() throws SQLException {
+        conn.close();
+    }
+
+    @Test
+    void bindsConditionParametersOnRangePages() throws SQLException {
+        List<Long> read = read(3, "updated_at > ? OR id > ?", List.of(WATERMARK, 95L), ids(1, 30));
+
+        assertEquals(List.of(2L, 4L, 6L, 8L, 10L, 12L, 14L, 16L, 18L, 20L, 22L, 24L, 26L, 28L, 30L), read);
+    }
+
+    @Test
+    void bindsConditionParametersOnSparsePages() throws SQLException {
+        // Nine ids twelve apart: a full IN page of six, then a trailing IN page of three
+        IdSet ids = IdSet.create();
+        for (long id = 3; id <= 99; id += 12) {
+            ids.add(id);
+        }
+
+        List<Long> read = read(6, "updated_at > ? OR id > ?", List.of(WATERMARK, 60L), ids);
+
+        assertEquals(List.of(63L, 75L, 87L, 99L), read);
+    }
+
+    @Test
+    void readsEverySelectedRowWithoutCondition() throws SQLException {
+        assertEquals(30, read(3, null, List.of(), ids(1, 30)).size());
+    }
+
+    private List<Long> read(int pageSize, String condition, List<?> parameters, IdSet ids) throws SQLException {
+        List<Long> read = new ArrayList<>();
+        new KeysetPageReader(conn, pageSize).forEachRow("items", condition, parameters, ids, rs -> {
+            read.add(rs.getLong("id"));
+            return true;
+        }, () -> { });
+        return read;
+    }
+
+    private static IdSet ids(long from, long to) {
+        IdSet ids = IdSet.create();
+        for (long id = from; id <= to; id++) {
+            ids.add(id);
+        }
+        return ids;
+    }
+}
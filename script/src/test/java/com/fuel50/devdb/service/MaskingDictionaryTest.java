@@ -0,0 +1,152 @@
+package com.fuel50.devdb.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class MaskingDictionaryTest {
+    // Offset of the dirty flag in the file header
+    private static final int DIRTY_OFFSET = 12;
+    // Header and slot table of a 100-entry dictionary: 256 slots of 24 bytes
+    private static final int HEADER_SIZE = 64;
+    private static final int VALUE_START = HEADER_SIZE + 256 * 24;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void storesStringsAndDoublesAndCountsLookups() throws IOException {
+        try (MaskingDictionary dictionary = open("salt", 100)) {
+            dictionary.put("synth:email", 1, "user1a2b3c@dev.local");
+            dictionary.put("mask:noise", 1, 12.5);
+            dictionary.put("synth:address", "ключ", "東京 Fake St");
+            dictionary.put("mask:other", 1, 42L);
+
+            assertEquals("user1a2b3c@dev.local", dictionary.get("synth:email", 1));
+            assertEquals(12.5, dictionary.get("mask:noise", 1));
+            assertEquals("東京 Fake St", dictionary.get("synth:address", "ключ"));
+            assertNull(dictionary.get("mask:other", 1));
+            assertNull(dictionary.get("synth:email", 2));
+            assertEquals(3, dictionary.size());
+            assertEquals(3, dictionary.getHits());
+            assertEquals(2, dictionary.getMisses());
+        }
+    }
+
+    @Test
+    void probesPastCollidingSlotsUntilFull() throws IOException {
+        // 64 entries fill half of the 128 slots, so many keys probe past occupied ones
+        try (MaskingDictionary dictionary = open("salt", 64)) {
+            for (int key = 0; key < 100; key++) {
+                dictionary.put("synth:email", key, "value-" + key);
+            }
+
+            assertEquals(64, dictionary.size());
+            for (int key = 0; key < 64; key++) {
+                assertEquals("value-" + key, dictionary.get("synth:email", key));
+            }
+            for (int key = 64; key < 100; key++) {
+                assertNull(dictionary.get("synth:email", key));
+            }
+        }
+    }
+
+    @Test
+    void keepsTheFirstValueForAKey() throws IOException {
+        try (MaskingDictionary dictionary = open("salt", 100)) {
+            dictionary.put("synth:email", 7, "first");
+            dictionary.put("synth:email", 7, "second");
+
+            assertEquals("first", dictionary.get("synth:email", 7));
+            assertEquals(1, dictionary.size());
+        }
+    }
+
+    @Test
+    void reusesEntriesAfterACleanClose() throws IOException {
+        try (MaskingDictionary dictionary = open("salt", 100)) {
+            dictionary.put("synth:email", 1, "kept");
+        }
+        try (MaskingDictionary dictionary = open("salt", 100)) {
+            assertEquals("kept", dictionary.get("synth:email", 1));
+        }
+    }
+
+    @Test
+    void rebuildsWhenSaltCapacityOrDirtyFlagDisagree() throws IOException {
+        try (MaskingDictionary dictionary = open("salt", 100)) {
+            dictionary.put("synth:email", 1, "stale");
+        }
+        try (MaskingDictionary dictionary = open("pepper", 100)) {
+            assertEquals(0, dictionary.size());
+            dictionary.put("synth:email", 1, "stale");
+        }
+        try (MaskingDictionary dictionary = open("pepper", 200)) {
+            assertEquals(0, dictionary.size());
+            dictionary.put("synth:email", 1, "stale");
+        }
+
+        // A run that died while the dictionary was open leaves the dirty flag set
+        try (FileChannel channel = FileChannel.open(dir.resolve(MaskingDictionary.DICTIONARY_FILE),
+                StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(Integer.BYTES).putInt(0, 1), DIRTY_OFFSET);
+        }
+        try (MaskingDictionary dictionary = open("pepper", 200)) {
+            assertEquals(0, dictionary.size());
+        }
+    }
+
+    @Test
+    void keysEntriesWithTheSalt() throws IOException {
+        Path salted = Files.createDirectories(dir.resolve("salted"));
+        Path peppered = Files.createDirectories(dir.resolve("peppered"));
+        try (MaskingDictionary dictionary = MaskingDictionary.open(salted, "salt", "SHA256", 100)) {
+            dictionary.put("synth:email", "jane@example.com", "user1a2b3c@dev.local");
+        }
+        try (MaskingDictionary dictionary = MaskingDictionary.open(peppered, "pepper", "SHA256", 100)) {
+            dictionary.put("synth:email", "jane@example.com", "user1a2b3c@dev.local");
+        }
+
+        // Without the salt, a guessed value's fingerprint is not found in the file
+        byte[] unsalted = ByteBuffer.allocate(Long.BYTES)
+                .putLong(FingerprintSet.fingerprint("synth:email\u0000jane@example.com")).array();
+        byte[] saltedFile = Files.readAllBytes(salted.resolve(MaskingDictionary.DICTIONARY_FILE));
+        byte[] pepperedFile = Files.readAllBytes(peppered.resolve(MaskingDictionary.DICTIONARY_FILE));
+        assertEquals(-1, indexOf(saltedFile, unsalted));
+        assertFalse(Arrays.equals(Arrays.copyOfRange(saltedFile, HEADER_SIZE, VALUE_START),
+                Arrays.copyOfRange(pepperedFile, HEADER_SIZE, VALUE_START)));
+    }
+
+    @Test
+    void isNotOpenedTwiceAtOnce() throws IOException {
+        try (MaskingDictionary dictionary = open("salt", 100)) {
+            assertNotNull(dictionary);
+            assertNull(open("salt", 100));
+        }
+    }
+
+    private static int indexOf(byte[] data, byte[] target) {
+        for (int i = 0; i + target.length <= data.length; i++) {
+            if (Arrays.equals(data, i, i + target.length, target, 0, target.length)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private MaskingDictionary open(String salt, int capacity) throws IOException {
+        return MaskingDictionary.open(dir, salt, "SHA256", capacity);
+    }
+}
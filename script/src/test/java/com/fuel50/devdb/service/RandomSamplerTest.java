@@ -0,0 +1,117 @@
+package com.fuel50.devdb.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongPredicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RandomSamplerTest {
+    private Connection conn;
+
+    @BeforeEach
+    void openDatabase() throws SQLException {
+        conn = DriverManager.getConnection("jdbc:h2:mem:");
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE items (id BIGINT PRIMARY KEY)");
+        }
+    }
+
+    @AfterEach
+    void closeDatabase() throws SQLException {
+        conn.close();
+    }
+
+    @Test
+    void sameSeedGivesSameSampleAndOtherSeedsDiffer() throws SQLException {
+        insert(1, 100_000, 1);
+        RandomSampler sampler = new RandomSampler(conn);
+
+        IdSet first = sampler.sample("items", 1000, null, "salt:items");
+        IdSet again = sampler.sample("items", 1000, null, "salt:items");
+        IdSet other = sampler.sample("items", 1000, null, "other:items");
+
+        assertEquals(1000, first.size());
+        assertEquals(toList(first), toList(again));
+        assertNotEquals(toList(first), toList(other));
+    }
+
+    @Test
+    void reachesMaxRowsInSparseIdSpaces() throws SQLException {
+        insert(1_000, 50_000_000, 997);
+
+        IdSet ids = new RandomSampler(conn).sample("items", 2000, null, "salt:items");
+
+        assertEquals(2000, ids.size());
+        ids.forEach(id -> assertEquals(1_000 % 997, id % 997));
+    }
+
+    @Test
+    void takesEveryRowOfTablesSmallerThanTheSample() throws SQLException {
+        insert(10, 500, 10);
+
+        IdSet ids = new RandomSampler(conn).sample("items", 1000, null, "salt:items");
+
+        assertEquals(50, ids.size());
+    }
+
+    @Test
+    void readsSmallTablesWholeButKeepsMaxRows() throws SQLException {
+        insert(1, 3000, 1);
+
+        IdSet ids = new RandomSampler(conn).sample("items", 1000, null, "salt:items");
+
+        assertEquals(1000, ids.size());
+        assertEquals(toList(ids), toList(new RandomSampler(conn).sample("items", 1000, null, "salt:items")));
+    }
+
+    @Test
+    void rowsAfterIdGapsAreNotFavoured() throws SQLException {
+        // Half the rows are dense, half sit four ids apart; a seek-after-random-point sampler picks 80% sparse
+        insert(1, 20_000, 1);
+        insert(20_004, 100_000, 4);
+
+        IdSet ids = new RandomSampler(conn).sample("items", 2000, null, "salt:items");
+
+        double dense = count(ids, id -> id <= 20_000) / (double) ids.size();
+        assertEquals(2000, ids.size());
+        assertTrue(dense > 0.4 && dense < 0.6, "share of dense rows was " + dense);
+    }
+
+    private void insert(long from, long to, long step) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("INSERT INTO items VALUES (?)")) {
+            for (long id = from; id <= to; id += step) {
+                stmt.setLong(1, id);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    private static long count(IdSet ids, LongPredicate predicate) {
+        long[] count = new long[1];
+        ids.forEach(id -> {
+            if (predicate.test(id)) {
+                count[0]++;
+            }
+        });
+        return count[0];
+    }
+
+    private static List<Long> toList(IdSet ids) {
+        List<Long> list = new ArrayList<>();
+        ids.forEach(list::add);
+        return list;
+    }
+}
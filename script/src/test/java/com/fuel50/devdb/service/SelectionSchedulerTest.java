@@ -0,0 +1,74 @@
+package com.fuel50.devdb.service;
+
+import com.fuel50.devdb.model.TableSpec;
+import org.junit.jupiter.api.Test;
+
+import java.sql.DriverManager;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SelectionSchedulerTest {
+    private static final ConnectionFactory H2 = () -> DriverManager.getConnection("jdbc:h2:mem:");
+
+    @Test
+    void runsTablesAfterTheTablesTheyReference() throws Exception {
+        Map<String, TableSpec> tables = new LinkedHashMap<>();
+        tables.put("users", table());
+        tables.put("orders", table("users"));
+        tables.put("payments", table("orders", "users"));
+
+        List<String> order = run(tables, List.of("users", "orders", "payments"), 3);
+
+        assertEquals(List.of("users", "orders", "payments"), order);
+    }
+
+    @Test
+    void breaksReferenceCyclesInProcessingOrderWhateverTheParallelism() throws Exception {
+        Map<String, TableSpec> tables = new LinkedHashMap<>();
+        tables.put("users", table());
+        tables.put("teams", table("users", "managers"));
+        tables.put("managers", table("teams"));
+        tables.put("reviews", table("managers"));
+
+        for (int parallelism : new int[] { 1, 4 }) {
+            List<String> order = run(tables, List.of("users", "teams", "managers", "reviews"), parallelism);
+
+            assertEquals(4, order.size());
+            assertTrue(order.indexOf("users") < order.indexOf("teams"));
+            assertTrue(order.indexOf("teams") < order.indexOf("managers"));
+            assertTrue(order.indexOf("managers") < order.indexOf("reviews"));
+        }
+    }
+
+    private static List<String> run(Map<String, TableSpec> tables, List<String> orderedTables, int parallelism)
+            throws Exception {
+        List<String> finished = Collections.synchronizedList(new ArrayList<>());
+        new SelectionScheduler(tables, orderedTables, H2, parallelism).run((tableName, conn) -> {
+            assertTrue(conn.isValid(1));
+            finished.add(tableName);
+        });
+        return finished;
+    }
+
+    private static TableSpec table(String... parents) {
+        List<TableSpec.ForeignKeyReference> references = new ArrayList<>();
+        for (String parent : parents) {
+            TableSpec.ForeignKeyReference reference = new TableSpec.ForeignKeyReference();
+            reference.setColumn(parent + "_id");
+            reference.setTable(parent);
+            reference.setColumnRef("id");
+            references.add(reference);
+        }
+        TableSpec.ForeignKeySpec fk = new TableSpec.ForeignKeySpec();
+        fk.setReferences(references);
+        TableSpec table = new TableSpec();
+        table.setFk(fk);
+        return table;
+    }
+}
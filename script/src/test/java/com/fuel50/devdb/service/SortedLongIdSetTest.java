@@ -0,0 +1,114 @@
+package com.fuel50.devdb.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SortedLongIdSetTest {
+
+    @Test
+    void keepsIdsSortedAndDistinct() {
+        IdSet ids = IdSet.create();
+        for (long id : new long[] { 5, 3, 9, 3, -1, 5, Long.MAX_VALUE, Long.MIN_VALUE }) {
+            ids.add(id);
+        }
+
+        assertEquals(6, ids.size());
+        assertArrayEquals(new long[] { Long.MIN_VALUE, -1, 3, 5, 9, Long.MAX_VALUE }, toArray(ids));
+        assertEquals(3, ids.get(2));
+        assertTrue(ids.contains(9));
+        assertFalse(ids.contains(4));
+    }
+
+    @Test
+    void mergesPendingIdsAcrossManyCompactions() {
+        // Interleaving reads with writes forces a merge of the pending tail at every size
+        Random random = new Random(42);
+        IdSet ids = IdSet.create();
+        TreeSet<Long> expected = new TreeSet<>();
+        for (int i = 0; i < 50_000; i++) {
+            long id = random.nextInt(20_000);
+            ids.add(id);
+            expected.add(id);
+            if (i % 997 == 0) {
+                assertEquals(expected.size(), ids.size());
+                assertTrue(ids.contains(id));
+            }
+        }
+
+        assertArrayEquals(expected.stream().mapToLong(Long::longValue).toArray(), toArray(ids));
+    }
+
+    @Test
+    void addsAllIdsOfAnotherSet() {
+        IdSet ids = IdSet.create();
+        ids.add(1);
+        ids.add(4);
+        IdSet other = IdSet.create();
+        other.add(4);
+        other.add(2);
+
+        ids.addAll(other);
+
+        assertArrayEquals(new long[] { 1, 2, 4 }, toArray(ids));
+    }
+
+    @Test
+    void frozenSetRejectsWritesButStillReads() {
+        IdSet ids = IdSet.create();
+        ids.add(2);
+        ids.add(1);
+
+        IdSet frozen = ids.freeze();
+
+        assertEquals(2, frozen.size());
+        assertTrue(frozen.contains(1));
+        assertThrows(IllegalStateException.class, () -> frozen.add(3));
+    }
+
+    @Test
+    void sliceCopiesSortedPositionsIntoFrozenSet() {
+        IdSet ids = IdSet.create();
+        for (long id = 10; id > 0; id--) {
+            ids.add(id * 10);
+        }
+
+        IdSet slice = ids.slice(2, 5);
+
+        assertArrayEquals(new long[] { 30, 40, 50 }, toArray(slice));
+        assertThrows(IllegalStateException.class, () -> slice.add(1));
+        assertEquals(0, ids.slice(3, 3).size());
+        assertThrows(IndexOutOfBoundsException.class, () -> ids.slice(5, 11));
+        assertThrows(IndexOutOfBoundsException.class, () -> ids.get(10));
+    }
+
+    @Test
+    void intersectsAndSubtractsSets() {
+        IdSet a = IdSet.create();
+        IdSet b = IdSet.create();
+        for (long id = 1; id <= 6; id++) {
+            a.add(id);
+        }
+        b.add(2);
+        b.add(4);
+        b.add(8);
+
+        assertArrayEquals(new long[] { 2, 4 }, toArray(IdSet.intersection(a, b)));
+        assertArrayEquals(new long[] { 1, 3, 5, 6 }, toArray(IdSet.difference(a, b)));
+    }
+
+    private static long[] toArray(IdSet ids) {
+        List<Long> values = new ArrayList<>();
+        ids.forEach(values::add);
+        return values.stream().mapToLong(Long::longValue).toArray();
+    }
+}
@@ -0,0 +1,63 @@
+package com.fuel50.devdb.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class TimeWindowResolverTest {
+    // Gaps of different sizes, so a probe that lands between rows has to move to the next one
+    private static final long[] IDS = { 1, 2, 5, 9, 10, 17, 30, 31, 44, 60, 61, 95 };
+
+    private Connection conn;
+
+    @BeforeEach
+    void createTable() throws SQLException {
+        conn = DriverManager.getConnection("jdbc:h2:mem:");
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE events (id BIGINT PRIMARY KEY, created_at TIMESTAMP)");
+        }
+    }
+
+    @AfterEach
+    void closeDatabase() throws SQLException {
+        conn.close();
+    }
+
+    @Test
+    void findsTheFirstIdInsideEveryWindow() throws SQLException {
+        // Row i is n - i days old, less half a day, so a window of d days holds exactly the last d rows
+        try (PreparedStatement insert = conn.prepareStatement(
+                "INSERT INTO events VALUES (?, DATEADD('HOUR', ?, CURRENT_TIMESTAMP))")) {
+            for (int i = 0; i < IDS.length; i++) {
+                insert.setLong(1, IDS[i]);
+                insert.setInt(2, -((IDS.length - i) * 24 - 12));
+                insert.executeUpdate();
+            }
+        }
+        TimeWindowResolver resolver = new TimeWindowResolver(conn);
+
+        // No row inside the window
+        assertNull(resolver.findFirstIdSince("events", 0));
+        // Boundaries at every row, from the newest alone to all but the oldest
+        for (int days = 1; days < IDS.length; days++) {
+            assertEquals(IDS[IDS.length - days], resolver.findFirstIdSince("events", days), days + " days");
+        }
+        // Every row inside the window
+        assertEquals(IDS[0], resolver.findFirstIdSince("events", IDS.length));
+        assertEquals(IDS[0], resolver.findFirstIdSince("events", 365));
+    }
+
+    @Test
+    void returnsNullForAnEmptyTable() throws SQLException {
+        assertNull(new TimeWindowResolver(conn).findFirstIdSince("events", 30));
+    }
+}